@@ -2,48 +2,62 @@ package ru.practicum.shareit.booking;
 
 
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchangeFilter;
+import ru.practicum.shareit.client.ServerTransport;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ObjectProvider<ServerTransport> transport,
+                         ObjectProvider<ServerExchangeFilter> filters) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .build(),
+                transport,
+                filters
         );
     }
 
-    public ResponseEntity<Object> createBooking(long userId, InputBookingDto inputBookingDto) {
+    public CompletableFuture<ResponseEntity<Object>> createBooking(long userId, InputBookingDto inputBookingDto) {
         return post("", userId, inputBookingDto);
     }
 
-    public ResponseEntity<Object> changeBookingStatus(long bookingId, long userId, boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> changeBookingStatus(long bookingId, long userId, boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch(String.format("/%d?approved={approved}", bookingId), userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> changeBookingStatuses(long userId, List<BookingDecisionDto> decisions) {
+        return patch("/batch", userId, decisions);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getBooking(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllUserBookings(long userId, BookingState state, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllUserBookings(long userId, BookingState state, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "state", state,
                 "from", from,
@@ -51,7 +65,7 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllOwnerBookings(long userId, BookingState state, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerBookings(long userId, BookingState state, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -59,4 +73,24 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
 
+    public CompletableFuture<ResponseEntity<Object>> getAllUserBookingsAfter(long userId, BookingState state, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size);
+        return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerBookingsAfter(long userId, BookingState state, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size);
+        return get("/owner?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(long userId, BookingExportFormat format) {
+        Map<String, Object> parameters = Map.of("format", format.name());
+        return stream("/owner/export?format={format}", userId, parameters);
+    }
 }
@@ -3,6 +3,9 @@ package ru.practicum.shareit.booking;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.exception.ResourceValidationException;
 import ru.practicum.shareit.validation.OnCreate;
@@ -12,9 +15,13 @@ import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.util.Header;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @Slf4j
@@ -23,49 +30,76 @@ import javax.validation.constraints.PositiveOrZero;
 @Validated
 public class BookingController {
 
+    private static final int MAX_BATCH_DECISIONS = 100;
+
     private final BookingClient bookingClient;
 
     @PostMapping
     @Validated(OnCreate.class)
-    public ResponseEntity<Object> createBooking(@Valid @RequestBody InputBookingDto inputBookingDto,
+    public CompletableFuture<ResponseEntity<Object>> createBooking(@Valid @RequestBody InputBookingDto inputBookingDto,
                                                 @RequestHeader(Header.USER_ID) Long bookerId) {
         log.info("Получен запрос на бронирование вещи={} от пользователя={}", inputBookingDto.getItemId(), bookerId);
         return bookingClient.createBooking(bookerId, inputBookingDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> changeBookingStatus(@RequestHeader(Header.USER_ID) @NotNull Long ownerId,
+    public CompletableFuture<ResponseEntity<Object>> changeBookingStatus(@RequestHeader(Header.USER_ID) @NotNull Long ownerId,
                                                       @PathVariable @NotNull Long bookingId,
                                                       @RequestParam @NotNull Boolean approved) {
         log.info("Получен запрос на изменение статуса бронирования от пользователя c id={}: {}", ownerId, approved);
         return bookingClient.changeBookingStatus(bookingId, ownerId, approved);
     }
 
+    @PatchMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> changeBookingStatuses(@RequestHeader(Header.USER_ID) @NotNull Long ownerId,
+                                                        @RequestBody @NotEmpty @Size(max = MAX_BATCH_DECISIONS)
+                                                        List<@Valid BookingDecisionDto> decisions) {
+        log.info("Получен запрос на изменение статусов {} бронирований от пользователя c id={}", decisions.size(), ownerId);
+        return bookingClient.changeBookingStatuses(ownerId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(Header.USER_ID) Long userId, @PathVariable Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(@RequestHeader(Header.USER_ID) Long userId, @PathVariable Long bookingId) {
         log.info("Получен запрос на просмотр бронирования с id={} от пользователя с id={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUserBookings(@RequestHeader(Header.USER_ID) Long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllUserBookings(@RequestHeader(Header.USER_ID) Long userId,
                                                      @RequestParam(defaultValue = "ALL") String state,
                                                      @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                     @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                                     @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                     @RequestParam(required = false) String cursor) {
         log.info("Получен запрос на просмотр всех бронирований состояния:{} пользователя с id={}", state, userId);
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new ResourceValidationException(String.format("Unknown state: %s", state)));
+        if (cursor != null) {
+            return bookingClient.getAllUserBookingsAfter(userId, bookingState, cursor, size);
+        }
         return bookingClient.getAllUserBookings(userId, bookingState, from, size);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllOwnerBookings(@RequestHeader(Header.USER_ID) Long ownerId,
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerBookings(@RequestHeader(Header.USER_ID) Long ownerId,
                                                       @RequestParam(defaultValue = "ALL") String state,
                                                       @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                      @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                                      @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                      @RequestParam(required = false) String cursor) {
         log.info("Получен запрос на просмотр всех бронирований состояния:{} владельца с id={}", state, ownerId);
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new ResourceValidationException(String.format("Unknown state: %s", state)));
+        if (cursor != null) {
+            return bookingClient.getAllOwnerBookingsAfter(ownerId, bookingState, cursor, size);
+        }
         return bookingClient.getAllOwnerBookings(ownerId, bookingState, from, size);
     }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(@RequestHeader(Header.USER_ID) Long ownerId,
+                                                                     @RequestParam(defaultValue = "CSV") String format) {
+        log.info("Получен запрос на выгрузку бронирований владельца с id={} в формате {}", ownerId, format);
+        BookingExportFormat exportFormat = BookingExportFormat.from(format)
+                .orElseThrow(() -> new ResourceValidationException(String.format("Unknown format: %s", format)));
+        return bookingClient.exportOwnerBookings(ownerId, exportFormat);
+    }
 }
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.exception.ServerOverloadedException;
+
+/**
+ * Ограничивает число одновременных запросов к серверу отдельно для каждого клиента шлюза (bookings, items,
+ * requests, users), так что медленные ответы одному клиенту не отнимают место у остальных. Запрос сверх
+ * лимита сразу отклоняется с ответом 503, а не ждёт в очереди. Лимит подстраивается под время ответа сервера:
+ * пока короткое скользящее среднее не превышает долгое, лимит растёт примерно на корень из лимита,
+ * при росте времени ответа уменьшается пропорционально, а при ошибках соединения и ответах 503
+ * уменьшается на десятую часть. Сверху лимит клиента ограничен его max-concurrent-calls.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+@ConditionalOnProperty(prefix = "shareit-server.concurrency", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class AdaptiveConcurrencyLimitFilter implements ServerExchangeFilter, MeterBinder {
+    private static final double SHORT_RTT_SMOOTHING = 0.1;
+    private static final double LONG_RTT_SMOOTHING = 0.01;
+    // рост времени ответа в этих пределах считается шумом и не уменьшает лимит
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final ShareItServerProperties.Concurrency properties;
+    private final Map<String, ShareItServerProperties.Client> clients;
+    private final LongSupplier clock;
+    private final Map<String, ClientLimit> limits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdaptiveConcurrencyLimitFilter(ShareItServerProperties properties) {
+        this(properties.getConcurrency(), properties.getClients(), System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimitFilter(ShareItServerProperties.Concurrency properties, LongSupplier clock) {
+        this(properties, Map.of(), clock);
+    }
+
+    AdaptiveConcurrencyLimitFilter(ShareItServerProperties.Concurrency properties,
+                                   Map<String, ShareItServerProperties.Client> clients,
+                                   LongSupplier clock) {
+        this.properties = properties;
+        this.clients = clients;
+        this.clock = clock;
+        // лимиты известных клиентов создаются сразу, чтобы их метрики были видны до первого запроса
+        clients.keySet().forEach(this::limit);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> filter(RequestEntity<?> request, ServerTransport next) {
+        ClientLimit limit = limit(ShareItServerProperties.clientName(request.getUrl()));
+        if (!limit.tryAcquire()) {
+            limit.rejected.increment();
+            throw new ServerOverloadedException(String.format(
+                    "Запрос %s %s отклонён: клиент %s уже отправил на сервер %d запросов", request.getMethod(),
+                    request.getUrl().getPath(), limit.name, limit.inFlight.get()));
+        }
+        long start = clock.getAsLong();
+        CompletableFuture<ResponseEntity<byte[]>> response;
+        try {
+            response = next.exchange(request);
+        } catch (RuntimeException e) {
+            limit.release(start, true);
+            throw e;
+        }
+        return response.whenComplete((result, error) -> limit.release(start,
+                error != null || result.getStatusCodeValue() == HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limits.values().forEach(limit -> {
+            Gauge.builder("shareit.gateway.concurrency.limit", limit, ClientLimit::getLimit)
+                    .description("Допустимое число одновременных запросов клиента к серверу")
+                    .tag("client", limit.name)
+                    .register(registry);
+            Gauge.builder("shareit.gateway.concurrency.in-flight", limit.inFlight, AtomicInteger::get)
+                    .description("Запросы клиента, ожидающие ответа сервера")
+                    .tag("client", limit.name)
+                    .register(registry);
+            FunctionCounter.builder("shareit.gateway.concurrency.rejected", limit.rejected, LongAdder::sum)
+                    .description("Запросы клиента, отклонённые из-за перегрузки сервера")
+                    .tag("client", limit.name)
+                    .register(registry);
+        });
+    }
+
+    int getLimit(String client) {
+        return limit(client).getLimit();
+    }
+
+    int getInFlight(String client) {
+        return limit(client).inFlight.get();
+    }
+
+    private ClientLimit limit(String client) {
+        return limits.computeIfAbsent(client, name -> {
+            ShareItServerProperties.Client settings = clients.get(name);
+            int maxLimit = settings != null && settings.getMaxConcurrentCalls() != null
+                    ? Math.min(properties.getMaxLimit(), settings.getMaxConcurrentCalls())
+                    : properties.getMaxLimit();
+            return new ClientLimit(name, Math.min(properties.getMinLimit(), maxLimit), maxLimit,
+                    Math.min(properties.getInitialLimit(), maxLimit));
+        });
+    }
+
+    private class ClientLimit {
+        private final String name;
+        private final int minLimit;
+        private final int maxLimit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+        private volatile double limit;
+        // скользящие средние времени ответа, наносекунды; изменяются только под блокировкой объекта
+        private double shortRtt;
+        private double longRtt;
+
+        ClientLimit(String name, int minLimit, int maxLimit, int initialLimit) {
+            this.name = name;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.limit = initialLimit;
+        }
+
+        int getLimit() {
+            return (int) limit;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= (int) limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(long start, boolean dropped) {
+            int current = inFlight.getAndDecrement();
+            // нулевое время ответа сделало бы отношение средних неопределённым
+            onSample(Math.max(1, clock.getAsLong() - start), current, dropped);
+        }
+
+        private synchronized void onSample(long rtt, int inFlightAtCompletion, boolean dropped) {
+            if (dropped) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                log.debug("Ошибка сервера, лимит одновременных запросов клиента {} снижен до {}", name, getLimit());
+                return;
+            }
+            shortRtt = shortRtt == 0 ? rtt : shortRtt + (rtt - shortRtt) * SHORT_RTT_SMOOTHING;
+            longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) * LONG_RTT_SMOOTHING;
+            // после перегрузки долгое среднее быстро догоняет короткое, иначе лимит долго не вернулся бы
+            if (longRtt > shortRtt * 2) {
+                longRtt *= 0.95;
+            }
+            // при неполной загрузке время ответа не говорит о пределе сервера, и лимит не меняется
+            if (inFlightAtCompletion < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.shareit.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.config.ShareItServerProperties;
+
+/**
+ * Выключатель запросов одного клиента шлюза. В состоянии CLOSED запросы проходят, а их исходы записываются
+ * в кольцевой буфер последних запросов; когда доля ошибок в нём достигает порога, выключатель переходит в OPEN
+ * и запросы отклоняются без обращения к серверу. По истечении времени ожидания пропускается несколько пробных
+ * запросов (HALF_OPEN): если все они успешны, выключатель снова CLOSED, при первой ошибке - снова OPEN.
+ */
+@Slf4j
+class CircuitBreaker {
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final ShareItServerProperties.CircuitBreaker properties;
+    private final LongSupplier clock;
+    private final long waitInOpenStateNanos;
+    private final LongAdder rejected = new LongAdder();
+    // исходы последних запросов в состоянии CLOSED, true - ошибка
+    private final boolean[] outcomes;
+    // чтение без блокировки пропускает запросы в состоянии CLOSED; переходы выполняются под блокировкой объекта
+    private volatile State state = State.CLOSED;
+    private int position;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    CircuitBreaker(String name, ShareItServerProperties.CircuitBreaker properties, LongSupplier clock) {
+        this.name = name;
+        this.properties = properties;
+        this.clock = clock;
+        this.waitInOpenStateNanos = properties.getWaitInOpenState().toNanos();
+        this.outcomes = new boolean[properties.getSlidingWindowSize()];
+    }
+
+    /**
+     * Возвращает Duration.ZERO, если запрос можно отправить, иначе - время до пробных запросов.
+     */
+    Duration tryAcquire() {
+        if (state == State.CLOSED) {
+            return Duration.ZERO;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                long remaining = waitInOpenStateNanos - (clock.getAsLong() - openedAt);
+                if (remaining > 0) {
+                    rejected.increment();
+                    return Duration.ofNanos(remaining);
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    // пробные запросы уже отправлены, их исходы станут известны не позже тайм-аута ответа
+                    rejected.increment();
+                    return properties.getWaitInOpenState();
+                }
+                halfOpenPermits--;
+            }
+            return Duration.ZERO;
+        }
+    }
+
+    synchronized void onSuccess() {
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        record(true);
+    }
+
+    // запрос, отклонённый самим шлюзом, ничего не говорит о сервере; пробное разрешение возвращается
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    State getState() {
+        return state;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    synchronized int getBufferedCalls() {
+        return recorded;
+    }
+
+    synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : failures * 100.0 / recorded;
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    private void record(boolean failure) {
+        switch (state) {
+            case CLOSED:
+                if (recorded == outcomes.length) {
+                    failures -= outcomes[position] ? 1 : 0;
+                } else {
+                    recorded++;
+                }
+                outcomes[position] = failure;
+                failures += failure ? 1 : 0;
+                position = (position + 1) % outcomes.length;
+                if (recorded >= properties.getMinimumNumberOfCalls()
+                        && failures * 100 >= properties.getFailureRateThreshold() * recorded) {
+                    transitionTo(State.OPEN);
+                }
+                break;
+            case HALF_OPEN:
+                if (failure) {
+                    transitionTo(State.OPEN);
+                } else if (++halfOpenSuccesses == properties.getPermittedCallsInHalfOpenState()) {
+                    transitionTo(State.CLOSED);
+                }
+                break;
+            default:
+                // ответ на запрос, отправленный до размыкания
+                break;
+        }
+    }
+
+    private void transitionTo(State newState) {
+        if (newState == State.OPEN && state == State.HALF_OPEN) {
+            log.warn("Пробный запрос клиента {} завершился ошибкой, запросы к серверу снова приостановлены", name);
+            openedAt = clock.getAsLong();
+        } else if (newState == State.OPEN) {
+            log.warn("Запросы клиента {} к серверу приостановлены: ошибок {} из {}", name, failures, recorded);
+            openedAt = clock.getAsLong();
+        } else if (newState == State.HALF_OPEN) {
+            log.info("Клиент {} отправляет на сервер пробные запросы", name);
+            halfOpenPermits = properties.getPermittedCallsInHalfOpenState();
+            halfOpenSuccesses = 0;
+        } else {
+            log.info("Запросы клиента {} к серверу возобновлены", name);
+        }
+        // окно начинается заново, чтобы ошибки до размыкания не разомкнули выключатель повторно
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        state = newState;
+    }
+}
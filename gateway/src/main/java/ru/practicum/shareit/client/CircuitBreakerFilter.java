@@ -0,0 +1,139 @@
+package ru.practicum.shareit.client;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.exception.ServerOverloadedException;
+
+/**
+ * Выключатель для каждого клиента шлюза: пока запросы клиента к серверу завершаются ошибками соединения,
+ * тайм-аутами или ответами 502, 503, 504, запросы этого клиента сразу получают ответ 503 с Retry-After
+ * и не занимают потоки и соединения. Остальные ответы, в том числе 500, означают, что сервер доступен.
+ * Стоит после повторов, поэтому каждая попытка учитывается отдельно, а при разомкнутом выключателе
+ * повторы не доходят до сервера. Состояние выключателей публикуется в /actuator/health
+ * (компонент circuitBreakers) и в метриках shareit.gateway.circuit-breaker.*.
+ */
+@Component("circuitBreakers")
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@ConditionalOnProperty(prefix = "shareit-server.circuit-breaker", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class CircuitBreakerFilter implements ServerExchangeFilter, MeterBinder, HealthIndicator {
+    // 500 сервер возвращает и на ошибки отдельного запроса, например на повторный email, поэтому это не отказ
+    private static final Set<Integer> FAILURE_STATUSES = Set.of(502, 503, 504);
+
+    private final ShareItServerProperties.CircuitBreaker properties;
+    private final LongSupplier clock;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CircuitBreakerFilter(ShareItServerProperties properties) {
+        this(properties.getCircuitBreaker(), properties.getClients().keySet(), System::nanoTime);
+    }
+
+    CircuitBreakerFilter(ShareItServerProperties.CircuitBreaker properties, Iterable<String> clients,
+                         LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        // выключатели известных клиентов создаются сразу, чтобы их состояние было видно до первого запроса
+        clients.forEach(this::breaker);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> filter(RequestEntity<?> request, ServerTransport next) {
+        CircuitBreaker breaker = breaker(ShareItServerProperties.clientName(request.getUrl()));
+        Duration retryAfter = breaker.tryAcquire();
+        if (!retryAfter.isZero()) {
+            throw new ServerOverloadedException(String.format(
+                    "Запрос %s %s отклонён: сервер не отвечает клиенту %s", request.getMethod(),
+                    request.getUrl().getPath(), breaker.getName()), retryAfter);
+        }
+        CompletableFuture<ResponseEntity<byte[]>> response;
+        try {
+            response = next.exchange(request);
+        } catch (RuntimeException e) {
+            record(breaker, e);
+            throw e;
+        }
+        return response.whenComplete((result, error) -> {
+            if (error != null) {
+                record(breaker, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            } else if (FAILURE_STATUSES.contains(result.getStatusCodeValue())) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        });
+    }
+
+    // открытый выключатель не делает шлюз неисправным, иначе оркестратор перезапускал бы шлюз из-за сервера
+    @Override
+    public Health health() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        breakers.values().forEach(breaker -> details.put(breaker.getName(), Map.of(
+                "state", breaker.getState(),
+                "failureRate", breaker.getFailureRate(),
+                "bufferedCalls", breaker.getBufferedCalls(),
+                "rejectedCalls", breaker.getRejected())));
+        return Health.up().withDetails(details).build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        breakers.values().forEach(breaker -> {
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("shareit.gateway.circuit-breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+                        .description("1 для текущего состояния выключателя клиента")
+                        .tag("client", breaker.getName())
+                        .tag("state", state.name().toLowerCase())
+                        .register(registry);
+            }
+            Gauge.builder("shareit.gateway.circuit-breaker.failure-rate", breaker, CircuitBreaker::getFailureRate)
+                    .description("Процент ошибок среди последних запросов клиента")
+                    .tag("client", breaker.getName())
+                    .register(registry);
+            FunctionCounter.builder("shareit.gateway.circuit-breaker.rejected", breaker, CircuitBreaker::getRejected)
+                    .description("Запросы клиента, отклонённые разомкнутым выключателем")
+                    .tag("client", breaker.getName())
+                    .register(registry);
+        });
+    }
+
+    CircuitBreaker.State getState(String client) {
+        return breaker(client).getState();
+    }
+
+    private CircuitBreaker breaker(String client) {
+        return breakers.computeIfAbsent(client, name -> new CircuitBreaker(name, properties, clock));
+    }
+
+    // отказ лимита одновременных запросов шлюза не говорит о состоянии сервера
+    private static void record(CircuitBreaker breaker, Throwable error) {
+        if (error instanceof ServerOverloadedException) {
+            breaker.onIgnored();
+        } else {
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.client;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.config.ShareItServerProperties;
+
+/**
+ * Неблокирующая отправка через HttpClient из JDK для профиля async: поток Tomcat освобождается
+ * сразу после отправки запроса, а ответ дописывается при асинхронной обработке запроса MVC.
+ * Один клиент со своим пулом соединений используется всеми клиентами шлюза; HttpClient из JDK
+ * не ограничивает размер пула, поэтому из настроек shareit-server.* применяются только тайм-ауты.
+ * Тайм-аут здесь ограничивает всё время ответа, а не паузу между пакетами.
+ */
+@Slf4j
+@Component
+@Profile("async")
+public class HttpClientTransport implements ServerTransport {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ShareItServerProperties properties;
+
+    public HttpClientTransport(ObjectMapper objectMapper, ShareItServerProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        log.info("Запросы к серверу отправляются асинхронно");
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> exchange(RequestEntity<?> request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUrl())
+                .timeout(properties.readTimeout(request.getUrl()))
+                .method(request.getMethod().name(), bodyPublisher(request.getBody()));
+        request.getHeaders().forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        throw new ResourceAccessException("Ошибка при обращении к серверу: " + cause.getMessage());
+                    }
+                    HttpHeaders headers = new HttpHeaders();
+                    response.headers().map().forEach(headers::addAll);
+                    return ResponseEntity.status(response.statusCode()).headers(headers).body(response.body());
+                });
+    }
+
+    private HttpRequest.BodyPublisher bodyPublisher(Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Не удалось сериализовать тело запроса: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.client;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.Header;
+
+/**
+ * Объединяет одинаковые GET-запросы, отправленные на сервер одновременно: пока первый запрос
+ * ждёт ответа, остальные получают тот же ответ без собственного обращения к серверу.
+ * Запросы одинаковы, если совпадают путь с параметрами, пользователь и If-None-Match.
+ * Ответ не хранится после получения, поэтому запрос, пришедший позже, уходит на сервер заново.
+ * Стоит после кэша ответов, так что объединяются только промахи и перепроверки кэша.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "shareit-server.coalescing", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class RequestCoalescingFilter implements ServerExchangeFilter {
+    // ответ на поиск не зависит от пользователя, поэтому запросы разных пользователей объединяются
+    private static final Pattern USER_INDEPENDENT_PATH = Pattern.compile("/items/search");
+
+    private final Map<Key, CompletableFuture<ResponseEntity<byte[]>>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> filter(RequestEntity<?> request, ServerTransport next) {
+        if (request.getMethod() != HttpMethod.GET) {
+            return next.exchange(request);
+        }
+        Key key = key(request);
+        CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<byte[]>> leader = inFlight.putIfAbsent(key, response);
+        if (leader != null) {
+            log.debug("Запрос {} присоединён к уже отправленному на сервер", key.getUri());
+            return leader;
+        }
+        try {
+            next.exchange(request).whenComplete((result, error) -> {
+                // запись удаляется до завершения, чтобы ожидающие не получили ответ повторно после него
+                inFlight.remove(key, response);
+                if (error != null) {
+                    response.completeExceptionally(error);
+                } else {
+                    response.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            // RestTemplate бросает ошибку соединения сразу; присоединившиеся запросы получают её же
+            inFlight.remove(key, response);
+            response.completeExceptionally(e);
+            throw e;
+        }
+        return response;
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private static Key key(RequestEntity<?> request) {
+        URI uri = request.getUrl();
+        HttpHeaders headers = request.getHeaders();
+        String userId = USER_INDEPENDENT_PATH.matcher(uri.getPath()).matches()
+                ? null
+                : headers.getFirst(Header.USER_ID);
+        return new Key(uri, userId, headers.getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Value
+    private static class Key {
+        URI uri;
+        String userId;
+        String ifNoneMatch;
+    }
+}
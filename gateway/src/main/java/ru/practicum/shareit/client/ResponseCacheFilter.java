@@ -0,0 +1,160 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.util.Header;
+
+/**
+ * Кэш ответов сервера на GET /items/{id}, /users/{id} и /requests/{id}, ключ - путь и пользователь.
+ * Свежий ответ отдаётся без обращения к серверу, устаревший перепроверяется запросом с If-None-Match,
+ * и при ответе 304 тело берётся из кэша. Изменяющие запросы, прошедшие через этот шлюз, вытесняют
+ * затронутые ответы; изменения через другие экземпляры шлюза видны после истечения ttl.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "shareit-server.cache", name = "enabled", havingValue = "true")
+public class ResponseCacheFilter implements ServerExchangeFilter {
+    private static final Pattern CACHEABLE_PATH = Pattern.compile("/(items|users|requests)/\\d+");
+
+    private final Cache<Key, CachedResponse> responses;
+    private final long ttlNanos;
+    // увеличивается при каждом вытеснении; ответ, запрошенный до вытеснения, не сохраняется
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCacheFilter(ShareItServerProperties properties) {
+        this.responses = Caffeine.from(properties.getCache().getSpec()).build();
+        this.ttlNanos = properties.getCache().getTtl().toNanos();
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> filter(RequestEntity<?> request, ServerTransport next) {
+        String path = request.getUrl().getPath();
+        if (request.getMethod() != HttpMethod.GET) {
+            return next.exchange(request).thenApply(response -> {
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    invalidate(request.getMethod(), path);
+                }
+                return response;
+            });
+        }
+        if (!CACHEABLE_PATH.matcher(path).matches()) {
+            return next.exchange(request);
+        }
+        Key key = new Key(path, request.getHeaders().getFirst(Header.USER_ID));
+        CachedResponse cached = responses.getIfPresent(key);
+        long now = System.nanoTime();
+        if (cached != null && now - cached.getStoredAt() < ttlNanos) {
+            return CompletableFuture.completedFuture(cached.toResponse());
+        }
+        long requestGeneration = generation.get();
+        String etag = cached != null ? cached.getHeaders().getETag() : null;
+        RequestEntity<?> upstreamRequest = etag != null ? withIfNoneMatch(request, etag) : request;
+        return next.exchange(upstreamRequest).thenApply(response -> {
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && etag != null) {
+                log.debug("Ответ на {} не изменился", path);
+                CachedResponse revalidated = cached.revalidated(System.nanoTime());
+                store(key, revalidated, requestGeneration);
+                return revalidated.toResponse();
+            }
+            if (response.getStatusCode() == HttpStatus.OK) {
+                store(key, new CachedResponse(response.getHeaders(), response.getBody(), System.nanoTime()),
+                        requestGeneration);
+            }
+            return response;
+        });
+    }
+
+    long size() {
+        responses.cleanUp();
+        return responses.estimatedSize();
+    }
+
+    private void store(Key key, CachedResponse response, long requestGeneration) {
+        if (generation.get() == requestGeneration) {
+            responses.put(key, response);
+        }
+    }
+
+    // вещь показывает владельцу бронирования и комментарии, запрос - ответившие на него вещи,
+    // а удаление пользователя удаляет его вещи и запросы
+    private void invalidate(HttpMethod method, String path) {
+        generation.incrementAndGet();
+        String[] segments = path.split("/");
+        String resource = segments.length > 1 ? segments[1] : "";
+        switch (resource) {
+            case "users":
+                if (method == HttpMethod.DELETE) {
+                    responses.invalidateAll();
+                } else {
+                    invalidatePath(path);
+                }
+                break;
+            case "items":
+                if (segments.length > 2 && segments[2].matches("\\d+")) {
+                    invalidatePath("/items/" + segments[2]);
+                }
+                if (method != HttpMethod.PATCH) {
+                    invalidatePrefix("/requests/");
+                }
+                break;
+            case "bookings":
+                invalidatePrefix("/items/");
+                break;
+            default:
+                invalidatePath(path);
+        }
+    }
+
+    private void invalidatePath(String path) {
+        responses.asMap().keySet().removeIf(key -> key.getPath().equals(path));
+    }
+
+    private void invalidatePrefix(String prefix) {
+        responses.asMap().keySet().removeIf(key -> key.getPath().startsWith(prefix));
+    }
+
+    private static RequestEntity<?> withIfNoneMatch(RequestEntity<?> request, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        headers.setIfNoneMatch(etag);
+        return new RequestEntity<>(request.getBody(), headers, request.getMethod(), request.getUrl());
+    }
+
+    @Value
+    private static class Key {
+        String path;
+        String userId;
+    }
+
+    @Value
+    private static class CachedResponse {
+        HttpHeaders headers;
+        byte[] body;
+        long storedAt;
+
+        CachedResponse revalidated(long now) {
+            return new CachedResponse(headers, body, now);
+        }
+
+        ResponseEntity<byte[]> toResponse() {
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Блокирующая отправка через RestTemplate клиента: поток Tomcat ждёт ответа сервера,
+ * а результат возвращается уже завершённым.
+ */
+class RestTemplateTransport implements ServerTransport {
+    private final RestTemplate rest;
+
+    RestTemplateTransport(RestTemplate rest) {
+        this.rest = rest;
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> exchange(RequestEntity<?> request) {
+        return CompletableFuture.completedFuture(rest.exchange(request, byte[].class));
+    }
+}
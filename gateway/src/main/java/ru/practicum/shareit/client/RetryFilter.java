@@ -0,0 +1,135 @@
+package ru.practicum.shareit.client;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.config.ShareItServerProperties;
+
+/**
+ * Повторяет GET-запросы, на которые сервер не ответил (ошибка соединения или тайм-аут) или ответил
+ * 502, 503, 504. Изменяющие запросы не повторяются: сервер мог выполнить запрос, ответ на который потерялся.
+ * Пауза перед повтором случайна, чтобы запросы, одновременно получившие ошибку, не вернулись на сервер разом.
+ * При блокирующей отправке пауза выдерживается в потоке запроса, как и само обращение к серверу,
+ * при асинхронной - повтор планируется без блокировки потока.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(prefix = "shareit-server.retry", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class RetryFilter implements ServerExchangeFilter, MeterBinder {
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(502, 503, 504);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    // случайная пауза от нуля до переданной границы, миллисекунды
+    private final LongUnaryOperator jitter;
+    private final LongAdder retries = new LongAdder();
+
+    @Autowired
+    public RetryFilter(ShareItServerProperties properties) {
+        this(properties.getRetry(), bound -> ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    RetryFilter(ShareItServerProperties.Retry properties, LongUnaryOperator jitter) {
+        this.maxAttempts = properties.getMaxAttempts();
+        this.initialBackoffMillis = properties.getInitialBackoff().toMillis();
+        this.maxBackoffMillis = properties.getMaxBackoff().toMillis();
+        this.jitter = jitter;
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> filter(RequestEntity<?> request, ServerTransport next) {
+        if (request.getMethod() != HttpMethod.GET) {
+            return next.exchange(request);
+        }
+        return exchange(request, next, 1);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shareit.gateway.retry.retries", retries, LongAdder::sum)
+                .description("Повторные отправки GET-запросов на сервер")
+                .register(registry);
+    }
+
+    long backoffMillis(int attempt) {
+        long bound = initialBackoffMillis << Math.min(attempt - 1, 30);
+        return jitter.applyAsLong(Math.min(maxBackoffMillis, bound));
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> exchange(RequestEntity<?> request, ServerTransport next,
+                                                               int attempt) {
+        CompletableFuture<ResponseEntity<byte[]>> response;
+        try {
+            response = next.exchange(request);
+        } catch (RuntimeException e) {
+            // RestTemplate бросает ошибку соединения сразу, её последнюю попытку получает вызывающий
+            if (attempt >= maxAttempts || !isRetryable(e)) {
+                throw e;
+            }
+            response = CompletableFuture.failedFuture(e);
+        }
+        if (attempt >= maxAttempts) {
+            return response;
+        }
+        boolean blocking = response.isDone();
+        return response.handle((result, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            boolean retryable = cause != null
+                    ? isRetryable(cause)
+                    : RETRYABLE_STATUSES.contains(result.getStatusCodeValue());
+            if (!retryable) {
+                return cause != null
+                        ? CompletableFuture.<ResponseEntity<byte[]>>failedFuture(cause)
+                        : CompletableFuture.completedFuture(result);
+            }
+            long backoff = backoffMillis(attempt);
+            retries.increment();
+            log.debug("Повтор запроса {} через {} мс, попытка {}: {}", request.getUrl().getPath(), backoff,
+                    attempt + 1, cause != null ? cause.getMessage() : result.getStatusCode());
+            return blocking
+                    ? retryAfterPause(request, next, attempt + 1, backoff)
+                    : CompletableFuture.supplyAsync(() -> exchange(request, next, attempt + 1),
+                            CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS, Runnable::run))
+                    .thenCompose(Function.identity());
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> retryAfterPause(RequestEntity<?> request, ServerTransport next,
+                                                                      int attempt, long backoff) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new ResourceAccessException("Повтор запроса к серверу прерван"));
+        }
+        return exchange(request, next, attempt);
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        return error instanceof ResourceAccessException;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Обработка запроса шлюза к серверу перед отправкой через ServerTransport: фильтр может ответить сам,
+ * изменить запрос или ответ. Бины-фильтры применяются ко всем клиентам шлюза в порядке @Order,
+ * первый фильтр получает запрос первым.
+ */
+public interface ServerExchangeFilter {
+    CompletableFuture<ResponseEntity<byte[]>> filter(RequestEntity<?> request, ServerTransport next);
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Способ отправки запроса шлюза на сервер. Запрос содержит абсолютный адрес и тело-объект,
+ * ответ сервера возвращается как массив байт с любым статусом.
+ */
+public interface ServerTransport {
+    CompletableFuture<ResponseEntity<byte[]>> exchange(RequestEntity<?> request);
+}
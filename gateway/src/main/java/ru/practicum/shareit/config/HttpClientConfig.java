@@ -0,0 +1,100 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Общий пул соединений с сервером для всех клиентов шлюза. Метрики пула публикуются в actuator
+ * как httpcomponents.httpclient.pool.* с тегом httpclient=shareit-server.
+ */
+@Configuration
+@EnableConfigurationProperties(ShareItServerProperties.class)
+public class HttpClientConfig {
+    public static final String POOL_NAME = "shareit-server";
+
+    @Bean
+    public PoolingHttpClientConnectionManager serverConnectionManager(ShareItServerProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getPool().getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getPool().getMaxPerRoute());
+        return connectionManager;
+    }
+
+    // фоновый поток клиента закрывает соединения, простаивающие дольше idle-timeout или с истёкшим keep-alive,
+    // чтобы запрос не получил соединение, уже закрытое сервером
+    @Bean
+    public CloseableHttpClient serverHttpClient(PoolingHttpClientConnectionManager serverConnectionManager,
+                                                ShareItServerProperties properties) {
+        ShareItServerProperties.Pool pool = properties.getPool();
+        return HttpClients.custom()
+                .setConnectionManager(serverConnectionManager)
+                .setDefaultRequestConfig(requestConfig(properties))
+                .setKeepAliveStrategy(keepAliveStrategy(pool.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(pool.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public RestTemplateCustomizer serverRequestFactoryCustomizer(CloseableHttpClient serverHttpClient,
+                                                                 ShareItServerProperties properties) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+        requestFactory.setHttpContextFactory(clientReadTimeouts(properties));
+        return restTemplate -> restTemplate.setRequestFactory(requestFactory);
+    }
+
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, POOL_NAME);
+    }
+
+    // тайм-аут ответа выбирается по клиенту шлюза, чтобы медленные бронирования не задавали его для остальных
+    static BiFunction<HttpMethod, URI, HttpContext> clientReadTimeouts(ShareItServerProperties properties) {
+        RequestConfig defaults = requestConfig(properties);
+        return (method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.copy(defaults)
+                    .setSocketTimeout(toMillis(properties.readTimeout(uri)))
+                    .build());
+            return context;
+        };
+    }
+
+    static ConnectionKeepAliveStrategy keepAliveStrategy(Duration keepAlive) {
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive.toMillis()) : keepAlive.toMillis();
+        };
+    }
+
+    private static RequestConfig requestConfig(ShareItServerProperties properties) {
+        return RequestConfig.custom()
+                .setConnectTimeout(toMillis(properties.getConnectTimeout()))
+                .setSocketTimeout(toMillis(properties.getReadTimeout()))
+                .setConnectionRequestTimeout(toMillis(properties.getPool().getAcquireTimeout()))
+                .build();
+    }
+
+    private static int toMillis(Duration duration) {
+        return Math.toIntExact(duration.toMillis());
+    }
+}
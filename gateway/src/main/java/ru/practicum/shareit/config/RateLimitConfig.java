@@ -0,0 +1,39 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.ratelimit.RateLimitInterceptor;
+import ru.practicum.shareit.ratelimit.RateLimiter;
+
+@Configuration
+@ConditionalOnProperty(prefix = "shareit-server.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(ShareItServerProperties properties) {
+        return new RateLimiter(properties.getRateLimit());
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitConfigurer(RateLimiter rateLimiter) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RateLimitInterceptor(rateLimiter));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder rateLimiterMetrics(RateLimiter rateLimiter) {
+        return registry -> FunctionCounter.builder("shareit.gateway.rate-limit.rejected", rateLimiter,
+                        RateLimiter::rejected)
+                .description("Запросы, отклонённые лимитом пользователя")
+                .register(registry);
+    }
+}
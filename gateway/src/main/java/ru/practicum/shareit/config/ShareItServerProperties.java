@@ -0,0 +1,134 @@
+package ru.practicum.shareit.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки соединений шлюза с сервером.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server")
+public class ShareItServerProperties {
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    // наибольшая пауза между пакетами ответа, а не время всего ответа
+    private Duration readTimeout = Duration.ofSeconds(30);
+    private final Pool pool = new Pool();
+    private final Cache cache = new Cache();
+    private final Coalescing coalescing = new Coalescing();
+    private final RateLimit rateLimit = new RateLimit();
+    private final Concurrency concurrency = new Concurrency();
+    // ключ - имя клиента шлюза, первый сегмент пути запроса к серверу: bookings, items, requests, users
+    private final Map<String, Client> clients = new HashMap<>();
+    private final Retry retry = new Retry();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    // /bookings/owner и /bookings/1 относятся к клиенту bookings
+    public static String clientName(URI uri) {
+        String path = uri.getPath();
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    public Duration readTimeout(URI uri) {
+        Client client = clients.get(clientName(uri));
+        return client != null && client.getReadTimeout() != null ? client.getReadTimeout() : readTimeout;
+    }
+
+    @Data
+    public static class Pool {
+        private int maxTotal = 200;
+        // все клиенты обращаются к одному серверу, поэтому маршрут по умолчанию может занять весь пул
+        private int maxPerRoute = 200;
+        // сколько запрос ждёт свободного соединения, прежде чем завершиться ошибкой
+        private Duration acquireTimeout = Duration.ofSeconds(2);
+        // срок жизни простаивающего соединения, если сервер не прислал свой в заголовке Keep-Alive
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration idleTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = false;
+        // сколько ответ отдаётся без обращения к серверу; после этого он перепроверяется по ETag
+        private Duration ttl = Duration.ofSeconds(10);
+        // размер кэша и срок хранения устаревших ответов для перепроверки
+        private String spec = "maximumSize=10000,expireAfterWrite=5m";
+    }
+
+    @Data
+    public static class Coalescing {
+        // одинаковые одновременные GET-запросы отправляются на сервер один раз
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class RateLimit {
+        private boolean enabled = true;
+        // корзины маркеров пользователей; корзина, к которой не обращались, вытесняется после наполнения
+        private String spec = "maximumSize=100000,expireAfterAccess=10m";
+        private Limit search = new Limit(5, 10);
+        private Limit bookings = new Limit(10, 20);
+        private Limit other = new Limit(20, 40);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        // средняя скорость запросов одного пользователя
+        private double permitsPerSecond;
+        // сколько запросов подряд пользователь может отправить без пауз
+        private int burst;
+    }
+
+    @Data
+    public static class Concurrency {
+        private boolean enabled = true;
+        // число одновременных запросов к серверу подстраивается под время ответа в этих границах
+        private int initialLimit = 50;
+        private int minLimit = 10;
+        private int maxLimit = 200;
+    }
+
+    @Data
+    public static class Client {
+        // наибольший лимит одновременных запросов клиента; сумма по клиентам не должна превышать размер пула,
+        // тогда медленные ответы одному клиенту не займут соединения остальных
+        private Integer maxConcurrentCalls;
+        // заменяет shareit-server.read-timeout для запросов клиента
+        private Duration readTimeout;
+    }
+
+    @Data
+    public static class Retry {
+        // повторяются только GET-запросы, завершившиеся ошибкой соединения или ответом 502, 503, 504
+        private boolean enabled = true;
+        // вместе с первой попыткой
+        private int maxAttempts = 3;
+        // пауза перед повтором выбирается случайно от нуля до initialBackoff * 2^(попытка - 1), но не больше maxBackoff
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        // доля ошибок считается по последним slidingWindowSize запросам клиента, но не меньше чем по minimumNumberOfCalls
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        // процент ошибок, при котором запросы клиента перестают отправляться на сервер
+        private int failureRateThreshold = 50;
+        // через это время на сервер пропускаются пробные запросы
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+        // если все пробные запросы успешны, отправка возобновляется, при первой ошибке снова прекращается
+        private int permittedCallsInHalfOpenState = 3;
+    }
+}
@@ -1,13 +1,16 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import javax.validation.ConstraintViolationException;
+import java.time.Duration;
 
 @Slf4j
 @RestControllerAdvice
@@ -55,10 +58,33 @@ public class ErrorHandler {
         return new ErrorResponse("Ошибка валидации", e.getMessage());
     }
 
+    // при перегрузке таких ответов много, поэтому они не пишутся в журнал как предупреждения
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handle(final TooManyRequestsException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e.getRetryAfter()))
+                .body(new ErrorResponse("Слишком много запросов", e.getMessage()));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handle(final ServerOverloadedException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e.getRetryAfter()))
+                .body(new ErrorResponse("Сервер перегружен", e.getMessage()));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handle(final Throwable e) {
         log.warn(e.getMessage());
         return new ErrorResponse("Ошибка сервера", e.getMessage());
     }
+
+    // Retry-After задаётся в целых секундах, округление вверх, чтобы повтор не пришёл раньше срока
+    private static String retryAfterSeconds(Duration retryAfter) {
+        long seconds = retryAfter.getSeconds() + (retryAfter.getNano() > 0 ? 1 : 0);
+        return String.valueOf(Math.max(1, seconds));
+    }
 }
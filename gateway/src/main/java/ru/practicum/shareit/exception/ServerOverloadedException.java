@@ -0,0 +1,20 @@
+package ru.practicum.shareit.exception;
+
+import java.time.Duration;
+
+public class ServerOverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServerOverloadedException(final String message) {
+        this(message, Duration.ofSeconds(1));
+    }
+
+    public ServerOverloadedException(final String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
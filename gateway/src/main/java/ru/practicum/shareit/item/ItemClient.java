@@ -1,17 +1,23 @@
 package ru.practicum.shareit.item;
 
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchangeFilter;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -20,39 +26,53 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ObjectProvider<ServerTransport> transport,
+                      ObjectProvider<ServerExchangeFilter> filters) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .build(),
+                transport,
+                filters
         );
     }
 
-    public ResponseEntity<Object> postItem(ItemDto itemDto, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> postItem(ItemDto itemDto, long userId) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> getItem(long itemId, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> postItems(List<ItemDto> itemDtos, long userId) {
+        return post("/batch", userId, itemDtos);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getItem(long itemId, long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAllItems(long userId, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllItems(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> patchItem(ItemDto itemDto, long itemId, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllItemsAfter(long userId, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size);
+        return get("?cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> patchItem(ItemDto itemDto, long itemId, long userId) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> deleteItem(long itemId, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteItem(long itemId, long userId) {
         return delete("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> searchItems(String text, long userId, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> searchItems(String text, long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -60,7 +80,23 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> postComment(CommentDto commentDto, long itemId, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getItemsAvailability(List<Long> itemIds, long userId, LocalDateTime from,
+                                                       LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "itemIds", itemIds.stream().map(String::valueOf).collect(Collectors.joining(",")),
+                "from", from,
+                "to", to);
+        return get("/availability?itemIds={itemIds}&from={from}&to={to}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getItemAvailability(long itemId, long userId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to);
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> postComment(CommentDto commentDto, long itemId, long userId) {
         return post(String.format("/%d/comment", itemId), userId, commentDto);
     }
 }
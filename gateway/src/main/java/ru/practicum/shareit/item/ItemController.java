@@ -2,7 +2,9 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.ResourceValidationException;
 import ru.practicum.shareit.util.Header;
 import ru.practicum.shareit.validation.OnCreate;
 import ru.practicum.shareit.validation.OnUpdate;
@@ -12,8 +14,14 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/items")
@@ -21,32 +29,49 @@ import javax.validation.constraints.PositiveOrZero;
 @RequiredArgsConstructor
 @Validated
 public class ItemController {
+    private static final int MAX_AVAILABILITY_ITEMS = 100;
+    private static final int MAX_IMPORT_ITEMS = 1000;
+
     private final ItemClient itemClient;
 
     @PostMapping
     @Validated(OnCreate.class)
-    public ResponseEntity<Object> postItem(@Valid @RequestBody ItemDto itemDto, @RequestHeader(Header.USER_ID) Long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> postItem(@Valid @RequestBody ItemDto itemDto, @RequestHeader(Header.USER_ID) Long ownerId) {
         log.info("Получен запрос на добавление вещи для пользователя с id={}", ownerId);
         return itemClient.postItem(itemDto, ownerId);
     }
 
+    // размер ограничен, чтобы контекст персистентности сервера не рос без предела; крупные каталоги
+    // загружаются несколькими запросами
+    @PostMapping("/batch")
+    @Validated({OnCreate.class, Default.class})
+    public CompletableFuture<ResponseEntity<Object>> postItems(@RequestBody @NotEmpty @Size(max = MAX_IMPORT_ITEMS) List<@Valid ItemDto> itemDtos,
+                                            @RequestHeader(Header.USER_ID) Long ownerId) {
+        log.info("Получен запрос на добавление {} вещей для пользователя с id={}", itemDtos.size(), ownerId);
+        return itemClient.postItems(itemDtos, ownerId);
+    }
+
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(@PathVariable Long itemId, @RequestHeader(Header.USER_ID) Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getItem(@PathVariable Long itemId, @RequestHeader(Header.USER_ID) Long userId) {
         log.info("Получен запрос на просмотр вещи c id={}", itemId);
         return itemClient.getItem(itemId, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItems(@RequestHeader(Header.USER_ID) Long ownerId,
+    public CompletableFuture<ResponseEntity<Object>> getAllItems(@RequestHeader(Header.USER_ID) Long ownerId,
                                               @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                              @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                              @RequestParam(defaultValue = "10") @Positive Integer size,
+                                              @RequestParam(required = false) String cursor) {
         log.info("Получен запрос на просмотр всех вещей пользователя id={} c {} размер {}", ownerId, from, size);
+        if (cursor != null) {
+            return itemClient.getAllItemsAfter(ownerId, cursor, size);
+        }
         return itemClient.getAllItems(ownerId, from, size);
     }
 
     @PatchMapping("/{itemId}")
     @Validated(OnUpdate.class)
-    public ResponseEntity<Object> patchItem(@Valid @RequestBody ItemDto itemDto,
+    public CompletableFuture<ResponseEntity<Object>> patchItem(@Valid @RequestBody ItemDto itemDto,
                                             @PathVariable Long itemId,
                                             @RequestHeader(Header.USER_ID) Long ownerId) {
         log.info("Получен запрос на обновление вещи c id={} пользователем с id={}", itemId, ownerId);
@@ -54,13 +79,13 @@ public class ItemController {
     }
 
     @DeleteMapping("/{itemId}")
-    public void deleteItem(@PathVariable Long itemId, @RequestHeader(Header.USER_ID) Long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteItem(@PathVariable Long itemId, @RequestHeader(Header.USER_ID) Long ownerId) {
         log.info("Получен запрос на удаление вещи c id={} пользователем c id={}", itemId, ownerId);
-        itemClient.deleteItem(itemId, ownerId);
+        return itemClient.deleteItem(itemId, ownerId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam String text,
+    public CompletableFuture<ResponseEntity<Object>> searchItems(@RequestParam String text,
                                               @RequestHeader(Header.USER_ID) Long userId,
                                               @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
                                               @RequestParam(defaultValue = "10") @Positive Integer size) {
@@ -68,12 +93,44 @@ public class ItemController {
         return itemClient.searchItems(text, userId, from, size);
     }
 
+    @GetMapping("/availability")
+    public CompletableFuture<ResponseEntity<Object>> getItemsAvailability(@RequestParam @NotEmpty @Size(max = MAX_AVAILABILITY_ITEMS)
+                                                       List<Long> itemIds,
+                                                       @RequestHeader(Header.USER_ID) Long userId,
+                                                       @RequestParam
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                       LocalDateTime from,
+                                                       @RequestParam
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                       LocalDateTime to) {
+        log.info("Получен запрос на просмотр занятости вещей {} c {} по {}", itemIds, from, to);
+        checkPeriod(from, to);
+        return itemClient.getItemsAvailability(itemIds, userId, from, to);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<Object>> getItemAvailability(@PathVariable Long itemId,
+                                                      @RequestHeader(Header.USER_ID) Long userId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime to) {
+        log.info("Получен запрос на просмотр занятости вещи c id={} c {} по {}", itemId, from, to);
+        checkPeriod(from, to);
+        return itemClient.getItemAvailability(itemId, userId, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> postComment(@Valid @RequestBody CommentDto commentDto,
+    public CompletableFuture<ResponseEntity<Object>> postComment(@Valid @RequestBody CommentDto commentDto,
                                               @PathVariable Long itemId,
                                               @RequestHeader(Header.USER_ID) Long userId) {
         log.info("Получен запрос на добавление комментария к вещи={} от пользователя={}", itemId, userId);
         return itemClient.postComment(commentDto, itemId, userId);
     }
 
+    private static void checkPeriod(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResourceValidationException("Начало периода должно быть раньше его окончания");
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.ratelimit;
+
+/**
+ * Группа эндпоинтов шлюза с общим лимитом запросов пользователя.
+ */
+public enum EndpointClass {
+    SEARCH,
+    BOOKINGS,
+    OTHER;
+
+    public static EndpointClass of(String path) {
+        if (path.startsWith("/items/search")) {
+            return SEARCH;
+        }
+        if (path.startsWith("/bookings")) {
+            return BOOKINGS;
+        }
+        return OTHER;
+    }
+}
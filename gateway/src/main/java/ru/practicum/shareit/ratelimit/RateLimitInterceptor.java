@@ -0,0 +1,40 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.time.Duration;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+import ru.practicum.shareit.util.Header;
+
+/**
+ * Отклоняет запрос пользователя до вызова контроллера, если пользователь исчерпал лимит группы эндпоинтов.
+ * Запросы без заголовка пользователя не ограничиваются, их отклоняет контроллер.
+ */
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // асинхронный ответ контроллера повторно проходит через интерцептор, токен за запрос уже списан
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String userId = request.getHeader(Header.USER_ID);
+        if (userId == null) {
+            return true;
+        }
+        EndpointClass endpoint = EndpointClass.of(request.getRequestURI());
+        Duration retryAfter = rateLimiter.tryAcquire(userId, endpoint);
+        if (!retryAfter.isZero()) {
+            throw new TooManyRequestsException(String.format("Пользователь с id=%s превысил лимит запросов %s",
+                    userId, endpoint), retryAfter);
+        }
+        return true;
+    }
+}
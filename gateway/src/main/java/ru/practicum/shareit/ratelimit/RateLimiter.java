@@ -0,0 +1,66 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+import ru.practicum.shareit.config.ShareItServerProperties;
+
+/**
+ * Лимиты запросов пользователей: отдельная корзина маркеров на каждую пару пользователь - группа эндпоинтов.
+ * Корзины, к которым долго не обращались, вытесняются; к этому времени они успевают наполниться,
+ * поэтому новая полная корзина ничем не отличается от вытесненной.
+ */
+public class RateLimiter {
+    private final ShareItServerProperties.RateLimit properties;
+    private final Cache<Key, TokenBucket> buckets;
+    private final LongSupplier clock;
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(ShareItServerProperties.RateLimit properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimiter(ShareItServerProperties.RateLimit properties, LongSupplier clock) {
+        this.properties = properties;
+        this.buckets = Caffeine.from(properties.getSpec()).build();
+        this.clock = clock;
+    }
+
+    // Duration.ZERO, если запрос разрешён, иначе сколько ждать до следующего разрешённого запроса
+    public Duration tryAcquire(String userId, EndpointClass endpoint) {
+        long now = clock.getAsLong();
+        ShareItServerProperties.Limit limit = limit(endpoint);
+        TokenBucket bucket = buckets.get(new Key(userId, endpoint),
+                key -> new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst(), now));
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            rejected.increment();
+        }
+        return Duration.ofNanos(wait);
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private ShareItServerProperties.Limit limit(EndpointClass endpoint) {
+        switch (endpoint) {
+            case SEARCH:
+                return properties.getSearch();
+            case BOOKINGS:
+                return properties.getBookings();
+            default:
+                return properties.getOther();
+        }
+    }
+
+    @Value
+    private static class Key {
+        String userId;
+        EndpointClass endpoint;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина маркеров без блокировок. Вместо числа маркеров хранится одно число - время, к которому
+ * корзина снова станет полной (алгоритм GCRA), поэтому получение маркера - одна операция CAS.
+ * Каждый запрос сдвигает это время на интервал пополнения одного маркера; запрос отклоняется,
+ * если время ушло вперёд больше, чем на ёмкость корзины.
+ */
+final class TokenBucket {
+    // время пополнения одного маркера
+    private final long intervalNanos;
+    // на сколько время полной корзины может опережать текущее: ёмкость корзины в единицах времени
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double permitsPerSecond, int burst, long now) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.capacityNanos = intervalNanos * Math.max(1, burst);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // 0, если маркер получен, иначе сколько наносекунд ждать следующего маркера
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - capacityNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
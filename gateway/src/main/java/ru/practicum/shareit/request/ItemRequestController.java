@@ -12,6 +12,7 @@ import ru.practicum.shareit.validation.OnCreate;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,27 +25,31 @@ public class ItemRequestController {
 
     @PostMapping
     @Validated(OnCreate.class)
-    public ResponseEntity<Object> postItemRequest(@Valid @RequestBody ItemRequestDto dto, @RequestHeader(Header.USER_ID) Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> postItemRequest(@Valid @RequestBody ItemRequestDto dto, @RequestHeader(Header.USER_ID) Long userId) {
         log.info("Получен запрос на добавление запроса на вещь от пользователя с id={}", userId);
         return requestClient.postItemRequest(dto, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getRequestsByUser(@RequestHeader(Header.USER_ID) Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getRequestsByUser(@RequestHeader(Header.USER_ID) Long userId) {
         log.info("Получен запрос на просмотр запросов от пользователя с id={}", userId);
         return requestClient.getRequestsByUser(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
                                                  @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                 @RequestParam(required = false) String cursor,
                                                  @RequestHeader(Header.USER_ID) Long userId) {
         log.info("Просмотр запросов от {} размером {} от пользователя с id={}", from, size, userId);
+        if (cursor != null) {
+            return requestClient.getAllRequestsAfter(cursor, size, userId);
+        }
         return requestClient.getAllRequests(from, size, userId);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequest(@PathVariable Long requestId,
+    public CompletableFuture<ResponseEntity<Object>> getRequest(@PathVariable Long requestId,
                                              @RequestHeader(Header.USER_ID) Long userId) {
         log.info("Просмотр запроса по id={} от пользователя id={}", requestId, userId);
         return requestClient.getRequest(requestId, userId);
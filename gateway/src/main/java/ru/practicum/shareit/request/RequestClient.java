@@ -2,16 +2,19 @@ package ru.practicum.shareit.request;
 
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchangeFilter;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 @Service
@@ -19,31 +22,41 @@ public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ObjectProvider<ServerTransport> transport,
+                         ObjectProvider<ServerExchangeFilter> filters) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .build(),
+                transport,
+                filters
         );
     }
 
-    public ResponseEntity<Object> postItemRequest(ItemRequestDto dto, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> postItemRequest(ItemRequestDto dto, long userId) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> getRequestsByUser(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getRequestsByUser(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequests(int from, int size, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(int from, int size, long userId) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequest(long requestId, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllRequestsAfter(String cursor, int size, long userId) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size);
+        return get("/all?cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getRequest(long requestId, long userId) {
         return get("/" + requestId, userId);
     }
 
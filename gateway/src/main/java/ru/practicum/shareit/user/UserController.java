@@ -10,6 +10,11 @@ import ru.practicum.shareit.validation.OnCreate;
 import ru.practicum.shareit.validation.OnUpdate;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @Slf4j
@@ -18,38 +23,50 @@ import javax.validation.Valid;
 @Validated
 public class UserController {
 
+    private static final int MAX_IMPORT_USERS = 1000;
+
     private final UserClient userClient;
 
     @PostMapping
     @Validated(OnCreate.class)
-    public ResponseEntity<Object> postUser(@Valid @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> postUser(@Valid @RequestBody UserDto userDto) {
         log.info("Получен запрос на добавление пользователя");
         return userClient.postUser(userDto);
     }
 
+    // размер ограничен, чтобы контекст персистентности сервера не рос без предела; крупные импорты
+    // отправляются несколькими запросами
+    @PostMapping("/batch")
+    @Validated({OnCreate.class, Default.class})
+    public CompletableFuture<ResponseEntity<Object>> postUsers(@RequestBody @NotEmpty @Size(max = MAX_IMPORT_USERS)
+                                            List<@Valid UserDto> userDtos) {
+        log.info("Получен запрос на добавление {} пользователей", userDtos.size());
+        return userClient.postUsers(userDtos);
+    }
+
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUser(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUser(@PathVariable Long userId) {
         log.info("Получен запрос на просмотр пользователя c id={}", userId);
         return userClient.getUser(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         log.info("Получен запрос на просмотр всех пользователей");
         return userClient.getAllUsers();
     }
 
     @PatchMapping("/{userId}")
     @Validated(OnUpdate.class)
-    public ResponseEntity<Object> patchUser(@Valid @RequestBody UserDto userDto, @PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> patchUser(@Valid @RequestBody UserDto userDto, @PathVariable Long userId) {
         log.info("Получен запрос на обновление пользователя c id={}", userId);
         return userClient.patchUser(userDto, userId);
     }
 
     @DeleteMapping("/{userId}")
-    public void deleteUser(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(@PathVariable Long userId) {
         log.info("Получен запрос на удаление пользователя c id={}", userId);
-        userClient.deleteUser(userId);
+        return userClient.deleteUser(userId);
     }
 
 }
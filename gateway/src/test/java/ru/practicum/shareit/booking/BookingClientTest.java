@@ -9,19 +9,34 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
+import ru.practicum.shareit.util.Header;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
 @RunWith(SpringRunner.class)
@@ -57,7 +72,7 @@ class BookingClientTest {
                 .andExpect(method(HttpMethod.POST))
                 .andRespond(withSuccess(bookingDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.bookingClient.createBooking(userId, inputBookingDto);
+        ResponseEntity dto = this.bookingClient.createBooking(userId, inputBookingDto).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -71,7 +86,20 @@ class BookingClientTest {
                 .andExpect(method(HttpMethod.PATCH))
                 .andRespond(withSuccess(bookingDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.bookingClient.changeBookingStatus(bookingId, userId, approved);
+        ResponseEntity dto = this.bookingClient.changeBookingStatus(bookingId, userId, approved).join();
+
+        assertTrue(dto.getStatusCode().is2xxSuccessful());
+    }
+
+    @Test
+    void changeBookingStatuses_whenInvoked_thenStatusIsOk() {
+        long userId = 0L;
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true));
+        this.server.expect(requestTo(serverUrl + "/bookings/batch"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        ResponseEntity dto = this.bookingClient.changeBookingStatuses(userId, decisions).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -84,7 +112,7 @@ class BookingClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess(bookingDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.bookingClient.getBooking(userId, bookingId);
+        ResponseEntity dto = this.bookingClient.getBooking(userId, bookingId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -99,7 +127,7 @@ class BookingClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.bookingClient.getAllUserBookings(userId, state, from, size);
+        ResponseEntity dto = this.bookingClient.getAllUserBookings(userId, state, from, size).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -114,8 +142,84 @@ class BookingClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.bookingClient.getAllOwnerBookings(userId, state, from, size);
+        ResponseEntity dto = this.bookingClient.getAllOwnerBookings(userId, state, from, size).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllOwnerBookings_whenClientSentIfNoneMatch_thenHeaderForwardedAndNotModifiedPassedThrough() {
+        MockHttpServletRequest clientRequest = new MockHttpServletRequest();
+        clientRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"1\"");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(clientRequest));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("W/\"1\"");
+        this.server.expect(requestTo(serverUrl + "/bookings/owner?state=ALL&from=0&size=10"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "W/\"1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(headers));
+
+        try {
+            ResponseEntity dto = this.bookingClient.getAllOwnerBookings(0L, BookingState.ALL, 0, 10).join();
+
+            assertEquals(HttpStatus.NOT_MODIFIED, dto.getStatusCode());
+            assertEquals("W/\"1\"", dto.getHeaders().getETag());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void getAllUserBookingsAfter_whenInvoked_thenCursorPassedAndNextCursorReturned() {
+        long userId = 0L;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(Header.NEXT_CURSOR, "next");
+        this.server.expect(requestTo(serverUrl + "/bookings?state=ALL&cursor=current&size=10"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess().headers(headers));
+
+        ResponseEntity dto = this.bookingClient.getAllUserBookingsAfter(userId, BookingState.ALL, "current", 10).join();
+
+        assertEquals("next", dto.getHeaders().getFirst(Header.NEXT_CURSOR));
+    }
+
+    @Test
+    @SneakyThrows
+    void exportOwnerBookings_whenInvoked_thenBodyAndHeadersPassedThrough() {
+        long userId = 1L;
+        String csv = "id,start,end,status,itemId,itemName,bookerId,bookerName\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\"");
+        this.server.expect(requestTo(serverUrl + "/bookings/owner/export?format=CSV"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(Header.USER_ID, "1"))
+                .andRespond(withSuccess(csv, MediaType.parseMediaType("text/csv;charset=UTF-8")).headers(headers));
+
+        ResponseEntity<StreamingResponseBody> response = this.bookingClient.exportOwnerBookings(userId,
+                BookingExportFormat.CSV);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv;charset=UTF-8", response.getHeaders().getContentType().toString());
+        assertEquals("bookings.csv", response.getHeaders().getContentDisposition().getFilename());
+        assertEquals(csv, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SneakyThrows
+    void exportOwnerBookings_whenServerRespondsNotFound_thenStatusAndErrorPassedThrough() {
+        String error = "{\"error\":\"User with id 1 not found\"}";
+        this.server.expect(requestTo(serverUrl + "/bookings/owner/export?format=NDJSON"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<StreamingResponseBody> response = this.bookingClient.exportOwnerBookings(1L,
+                BookingExportFormat.NDJSON);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(error, out.toString(StandardCharsets.UTF_8));
+    }
+}
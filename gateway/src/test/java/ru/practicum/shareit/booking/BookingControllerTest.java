@@ -12,12 +12,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.exception.ResourceValidationException;
 import ru.practicum.shareit.util.Header;
 import ru.practicum.shareit.util.Util;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -51,7 +57,7 @@ class BookingControllerTest {
                 .itemId(0L)
                 .build();
 
-        when(bookingClient.createBooking(userId, inputBookingDto)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(bookingClient.createBooking(userId, inputBookingDto)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(post("/bookings")
                         .header(Header.USER_ID, userId)
@@ -156,7 +162,7 @@ class BookingControllerTest {
     void getBooking_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
         Long userId = 0L;
         Long bookingId = 0L;
-        when(bookingClient.getBooking(userId, bookingId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(bookingClient.getBooking(userId, bookingId)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/bookings/{bookingId}", bookingId)
                         .header(Header.USER_ID, userId))
@@ -307,4 +313,95 @@ class BookingControllerTest {
 
         verify(bookingClient, never()).getAllOwnerBookings(userId, BookingState.valueOf(state), from, size);
     }
+
+    @SneakyThrows
+    @Test
+    void getAllUserBookings_whenCursorPassed_thenKeysetClientMethodCalled() {
+        Long userId = 0L;
+        String cursor = "fHwx";
+        Integer size = 10;
+
+        mvc.perform(get("/bookings")
+                        .header(Header.USER_ID, userId)
+                        .param("cursor", cursor)
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).getAllUserBookingsAfter(userId, BookingState.ALL, cursor, size);
+        verify(bookingClient, never()).getAllUserBookings(anyLong(), any(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void changeBookingStatuses_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
+        Long ownerId = 0L;
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false));
+        when(bookingClient.changeBookingStatuses(ownerId, decisions)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
+
+        mvc.perform(patch("/bookings/batch")
+                        .header(Header.USER_ID, ownerId)
+                        .content(mapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).changeBookingStatuses(ownerId, decisions);
+    }
+
+    @SneakyThrows
+    @Test
+    void changeBookingStatuses_whenDecisionWithoutApproved_thenStatusIsBadRequestAndClientMethodNeverCalled() {
+        Long ownerId = 0L;
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, null));
+
+        mvc.perform(patch("/bookings/batch")
+                        .header(Header.USER_ID, ownerId)
+                        .content(mapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).changeBookingStatuses(anyLong(), anyList());
+    }
+
+    @SneakyThrows
+    @Test
+    void changeBookingStatuses_whenTooManyDecisions_thenStatusIsBadRequestAndClientMethodNeverCalled() {
+        Long ownerId = 0L;
+        List<BookingDecisionDto> decisions = Collections.nCopies(101, new BookingDecisionDto(1L, true));
+
+        mvc.perform(patch("/bookings/batch")
+                        .header(Header.USER_ID, ownerId)
+                        .content(mapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).changeBookingStatuses(anyLong(), anyList());
+    }
+
+    @SneakyThrows
+    @Test
+    void exportOwnerBookings_whenFormatIsNdjson_thenStatusIsOkAndClientMethodCalled() {
+        Long ownerId = 0L;
+        when(bookingClient.exportOwnerBookings(ownerId, BookingExportFormat.NDJSON))
+                .thenReturn(ResponseEntity.ok(out -> { }));
+
+        mvc.perform(get("/bookings/owner/export")
+                        .header(Header.USER_ID, ownerId)
+                        .param("format", "ndjson"))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).exportOwnerBookings(ownerId, BookingExportFormat.NDJSON);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportOwnerBookings_whenFormatIsUnknown_thenStatusIsBadRequestAndClientMethodNeverCalled() {
+        mvc.perform(get("/bookings/owner/export")
+                        .header(Header.USER_ID, 0L)
+                        .param("format", "XML"))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof ResourceValidationException))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).exportOwnerBookings(anyLong(), any());
+    }
 }
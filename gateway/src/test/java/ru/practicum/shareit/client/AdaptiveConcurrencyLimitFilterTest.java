@@ -0,0 +1,185 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.exception.ServerOverloadedException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitFilterTest {
+    private static final RequestEntity<?> REQUEST = new RequestEntity<>(HttpMethod.GET,
+            URI.create("http://localhost:9090/items/1"));
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<CompletableFuture<ResponseEntity<byte[]>>> upstreamResponses = new ArrayList<>();
+    private final ServerTransport server = request -> {
+        CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+        upstreamResponses.add(response);
+        return response;
+    };
+
+    @Test
+    void filter_whenLimitReached_thenRejectedWithoutServerCall() {
+        AdaptiveConcurrencyLimitFilter filter = filter(2, 1, 10);
+        filter.filter(REQUEST, server);
+        filter.filter(REQUEST, server);
+
+        assertThrows(ServerOverloadedException.class, () -> filter.filter(REQUEST, server));
+        assertEquals(2, upstreamResponses.size());
+        assertEquals(2, filter.getInFlight("items"));
+    }
+
+    @Test
+    void filter_whenResponseReceived_thenSlotReleased() {
+        AdaptiveConcurrencyLimitFilter filter = filter(1, 1, 10);
+        filter.filter(REQUEST, server);
+        upstreamResponses.get(0).complete(ResponseEntity.ok().build());
+
+        filter.filter(REQUEST, server);
+
+        assertEquals(2, upstreamResponses.size());
+        assertEquals(1, filter.getInFlight("items"));
+    }
+
+    @Test
+    void filter_whenServerUnavailable_thenLimitDecreased() {
+        AdaptiveConcurrencyLimitFilter filter = filter(20, 1, 100);
+        filter.filter(REQUEST, server);
+        filter.filter(REQUEST, server);
+
+        upstreamResponses.get(0).completeExceptionally(new ResourceAccessException("read timed out"));
+        upstreamResponses.get(1).complete(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+
+        assertEquals(16, filter.getLimit("items"));
+        assertEquals(0, filter.getInFlight("items"));
+    }
+
+    @Test
+    void filter_whenTransportThrows_thenSlotReleasedAndErrorRethrown() {
+        AdaptiveConcurrencyLimitFilter filter = filter(1, 1, 10);
+        ServerTransport failing = request -> {
+            throw new ResourceAccessException("connection refused");
+        };
+
+        assertThrows(ResourceAccessException.class, () -> filter.filter(REQUEST, failing));
+        assertEquals(0, filter.getInFlight("items"));
+    }
+
+    @Test
+    void filter_whenFullyLoadedWithSteadyLatency_thenLimitGrowsUpToMax() {
+        AdaptiveConcurrencyLimitFilter filter = filter(10, 1, 40);
+
+        runFullyLoaded(filter, 50, 10);
+
+        assertEquals(40, filter.getLimit("items"));
+    }
+
+    @Test
+    void filter_whenLatencyRises_thenLimitDecreases() {
+        AdaptiveConcurrencyLimitFilter filter = filter(20, 5, 40);
+        runFullyLoaded(filter, 50, 10);
+        int steadyLimit = filter.getLimit("items");
+
+        runFullyLoaded(filter, 10, 100);
+
+        assertTrue(filter.getLimit("items") < steadyLimit);
+    }
+
+    @Test
+    void filter_whenNotFullyLoaded_thenLimitUnchanged() {
+        AdaptiveConcurrencyLimitFilter filter = filter(20, 1, 40);
+
+        for (int i = 0; i < 50; i++) {
+            filter.filter(REQUEST, server);
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            upstreamResponses.get(i).complete(ResponseEntity.ok().build());
+        }
+
+        assertEquals(20, filter.getLimit("items"));
+    }
+
+    @Test
+    void filter_whenAnotherClientAtLimit_thenRequestStillSent() {
+        AdaptiveConcurrencyLimitFilter filter = filter(1, 1, 10);
+        RequestEntity<?> bookings = new RequestEntity<>(HttpMethod.GET,
+                URI.create("http://localhost:9090/bookings/owner"));
+        filter.filter(bookings, server);
+
+        assertThrows(ServerOverloadedException.class, () -> filter.filter(bookings, server));
+        filter.filter(REQUEST, server);
+
+        assertEquals(2, upstreamResponses.size());
+        assertEquals(1, filter.getInFlight("bookings"));
+        assertEquals(1, filter.getInFlight("items"));
+    }
+
+    @Test
+    void filter_whenAnotherClientSlowsDown_thenLimitUnchanged() {
+        AdaptiveConcurrencyLimitFilter filter = filter(20, 5, 40);
+        runFullyLoaded(filter, 50, 10);
+        int steadyLimit = filter.getLimit("items");
+        RequestEntity<?> bookings = new RequestEntity<>(HttpMethod.GET,
+                URI.create("http://localhost:9090/bookings/owner"));
+
+        for (int i = 0; i < 20; i++) {
+            filter.filter(bookings, server);
+            now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            upstreamResponses.get(upstreamResponses.size() - 1)
+                    .completeExceptionally(new ResourceAccessException("read timed out"));
+        }
+
+        assertEquals(steadyLimit, filter.getLimit("items"));
+        assertEquals(5, filter.getLimit("bookings"));
+    }
+
+    @Test
+    void filter_whenClientMaxConcurrentCallsSet_thenLimitCappedByIt() {
+        ShareItServerProperties.Concurrency properties = new ShareItServerProperties.Concurrency();
+        ShareItServerProperties.Client items = new ShareItServerProperties.Client();
+        items.setMaxConcurrentCalls(30);
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(properties,
+                Map.of("items", items), now::get);
+
+        assertEquals(30, filter.getLimit("items"));
+        runFullyLoaded(filter, 50, 10);
+
+        assertEquals(30, filter.getLimit("items"));
+        assertEquals(properties.getInitialLimit(), filter.getLimit("users"));
+    }
+
+    // в каждом раунде отправляется столько запросов, сколько позволяет лимит, и все отвечают за latencyMillis
+    private void runFullyLoaded(AdaptiveConcurrencyLimitFilter filter, int rounds, long latencyMillis) {
+        for (int round = 0; round < rounds; round++) {
+            int from = upstreamResponses.size();
+            int count = filter.getLimit("items");
+            for (int i = 0; i < count; i++) {
+                filter.filter(REQUEST, server);
+            }
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+            for (int i = from; i < from + count; i++) {
+                upstreamResponses.get(i).complete(ResponseEntity.ok().build());
+            }
+        }
+    }
+
+    private AdaptiveConcurrencyLimitFilter filter(int initialLimit, int minLimit, int maxLimit) {
+        ShareItServerProperties.Concurrency properties = new ShareItServerProperties.Concurrency();
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(minLimit);
+        properties.setMaxLimit(maxLimit);
+        return new AdaptiveConcurrencyLimitFilter(properties, now::get);
+    }
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.exception.ServerOverloadedException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerFilterTest {
+    private static final RequestEntity<?> ITEM = new RequestEntity<>(HttpMethod.GET,
+            URI.create("http://localhost:9090/items/1"));
+    private static final RequestEntity<?> BOOKINGS = new RequestEntity<>(HttpMethod.GET,
+            URI.create("http://localhost:9090/bookings/owner"));
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<CompletableFuture<ResponseEntity<byte[]>>> upstreamResponses = new ArrayList<>();
+    private final ServerTransport server = request -> {
+        CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+        upstreamResponses.add(response);
+        return response;
+    };
+    private final CircuitBreakerFilter filter = new CircuitBreakerFilter(properties(), List.of("items", "bookings"),
+            now::get);
+
+    @Test
+    void filter_whenFailureRateBelowThreshold_thenStaysClosed() {
+        respond(ITEM, 3, HttpStatus.OK);
+        respond(ITEM, 1, HttpStatus.SERVICE_UNAVAILABLE);
+
+        assertEquals(CircuitBreaker.State.CLOSED, filter.getState("items"));
+    }
+
+    @Test
+    void filter_whenServerAnswersGatewayErrors_thenCountedAsFailuresAndOpened() {
+        respond(ITEM, 2, HttpStatus.BAD_GATEWAY);
+        respond(ITEM, 1, HttpStatus.SERVICE_UNAVAILABLE);
+        respond(ITEM, 1, HttpStatus.GATEWAY_TIMEOUT);
+
+        assertEquals(CircuitBreaker.State.OPEN, filter.getState("items"));
+    }
+
+    @Test
+    void filter_whenServerAnswersInternalServerError_thenNotCountedAndStaysClosed() {
+        respond(ITEM, 10, HttpStatus.INTERNAL_SERVER_ERROR);
+
+        filter.filter(ITEM, server);
+
+        assertEquals(CircuitBreaker.State.CLOSED, filter.getState("items"));
+        assertEquals(11, upstreamResponses.size());
+    }
+
+    @Test
+    void filter_whenFailureRateReachesThreshold_thenOpenedAndRequestsRejectedWithoutServerCall() {
+        respond(ITEM, 2, HttpStatus.OK);
+        fail(ITEM, 2);
+
+        ServerOverloadedException e = assertThrows(ServerOverloadedException.class, () -> filter.filter(ITEM, server));
+
+        assertEquals(CircuitBreaker.State.OPEN, filter.getState("items"));
+        assertEquals(Duration.ofSeconds(10), e.getRetryAfter());
+        assertEquals(4, upstreamResponses.size());
+    }
+
+    @Test
+    void filter_whenTooFewCalls_thenStaysClosed() {
+        fail(ITEM, 3);
+
+        assertEquals(CircuitBreaker.State.CLOSED, filter.getState("items"));
+    }
+
+    @Test
+    void filter_whenOneClientOpen_thenOtherClientStillSent() {
+        fail(BOOKINGS, 4);
+
+        filter.filter(ITEM, server);
+
+        assertEquals(CircuitBreaker.State.OPEN, filter.getState("bookings"));
+        assertEquals(CircuitBreaker.State.CLOSED, filter.getState("items"));
+        assertEquals(5, upstreamResponses.size());
+    }
+
+    @Test
+    void filter_whenWaitElapsedAndTrialCallsSucceed_thenClosed() {
+        fail(ITEM, 4);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        filter.filter(ITEM, server);
+        filter.filter(ITEM, server);
+        assertThrows(ServerOverloadedException.class, () -> filter.filter(ITEM, server));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, filter.getState("items"));
+        upstreamResponses.get(4).complete(ResponseEntity.ok().build());
+        upstreamResponses.get(5).complete(ResponseEntity.ok().build());
+
+        assertEquals(CircuitBreaker.State.CLOSED, filter.getState("items"));
+    }
+
+    @Test
+    void filter_whenTrialCallFails_thenOpenedAgain() {
+        fail(ITEM, 4);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        fail(ITEM, 1);
+
+        assertEquals(CircuitBreaker.State.OPEN, filter.getState("items"));
+        assertThrows(ServerOverloadedException.class, () -> filter.filter(ITEM, server));
+    }
+
+    @Test
+    void filter_whenTransportThrows_thenCountedAsFailureAndRethrown() {
+        ServerTransport failing = request -> {
+            throw new ResourceAccessException("connection refused");
+        };
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ResourceAccessException.class, () -> filter.filter(ITEM, failing));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, filter.getState("items"));
+    }
+
+    @Test
+    void filter_whenRejectedByGatewayLimit_thenNotCounted() {
+        ServerTransport overloaded = request -> {
+            throw new ServerOverloadedException("лимит");
+        };
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ServerOverloadedException.class, () -> filter.filter(ITEM, overloaded));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, filter.getState("items"));
+    }
+
+    @Test
+    void health_whenClientOpen_thenUpWithStateDetails() {
+        fail(BOOKINGS, 4);
+
+        Health health = filter.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(CircuitBreaker.State.OPEN, ((Map<?, ?>) health.getDetails().get("bookings")).get("state"));
+        assertEquals(CircuitBreaker.State.CLOSED, ((Map<?, ?>) health.getDetails().get("items")).get("state"));
+    }
+
+    private void respond(RequestEntity<?> request, int times, HttpStatus status) {
+        for (int i = 0; i < times; i++) {
+            filter.filter(request, server);
+            upstreamResponses.get(upstreamResponses.size() - 1).complete(ResponseEntity.status(status).build());
+        }
+    }
+
+    private void fail(RequestEntity<?> request, int times) {
+        for (int i = 0; i < times; i++) {
+            filter.filter(request, server);
+            upstreamResponses.get(upstreamResponses.size() - 1)
+                    .completeExceptionally(new ResourceAccessException("read timed out"));
+        }
+    }
+
+    private static ShareItServerProperties.CircuitBreaker properties() {
+        ShareItServerProperties.CircuitBreaker properties = new ShareItServerProperties.CircuitBreaker();
+        properties.setSlidingWindowSize(10);
+        properties.setMinimumNumberOfCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setWaitInOpenState(Duration.ofSeconds(10));
+        properties.setPermittedCallsInHalfOpenState(2);
+        return properties;
+    }
+}
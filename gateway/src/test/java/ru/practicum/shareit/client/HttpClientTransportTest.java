@@ -0,0 +1,155 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class HttpClientTransportTest {
+    private static final int CONCURRENT_REQUESTS = 500;
+    private static final long SERVER_DELAY_MS = 200;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClientTransport transport = new HttpClientTransport(mapper, new ShareItServerProperties());
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+    private HttpServer server;
+    private URI baseUri;
+
+    @BeforeEach
+    @SneakyThrows
+    void setUp() {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENT_REQUESTS);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUri = URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void exchange_whenPostWithBody_thenBodySerializedAndResponsePassedThrough() {
+        AtomicReference<String> receivedBody = new AtomicReference<>();
+        AtomicReference<String> receivedUserId = new AtomicReference<>();
+        String answer = "{\"id\":1,\"name\":\"name\",\"email\":\"user@email.com\"}";
+        server.createContext("/users", exchange -> {
+            receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            receivedUserId.set(exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+            respond(exchange, 201, answer);
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Sharer-User-Id", "1");
+        UserDto userDto = UserDto.builder().name("name").email("user@email.com").build();
+
+        ResponseEntity<byte[]> response = transport.exchange(
+                new RequestEntity<>(userDto, headers, HttpMethod.POST, baseUri.resolve("/users"))).join();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(answer, new String(response.getBody(), StandardCharsets.UTF_8));
+        assertEquals("1", receivedUserId.get());
+        assertTrue(receivedBody.get().contains("\"email\":\"user@email.com\""));
+    }
+
+    @Test
+    void exchange_whenServerRespondsNotFound_thenStatusAndBodyReturned() {
+        String error = "{\"error\":\"User with id 1 not found\"}";
+        server.createContext("/users/1", exchange -> respond(exchange, 404, error));
+
+        ResponseEntity<byte[]> response = transport.exchange(
+                new RequestEntity<>(HttpMethod.GET, baseUri.resolve("/users/1"))).join();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(error, new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exchange_whenServerUnavailable_thenResourceAccessException() {
+        URI uri = baseUri.resolve("/users");
+        server.stop(0);
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> transport.exchange(new RequestEntity<>(HttpMethod.GET, uri)).join());
+
+        assertTrue(e.getCause() instanceof ResourceAccessException);
+    }
+
+    // замер неблокирующей отправки: все запросы отправляются из одного потока и ждут медленного
+    // сервера одновременно, поэтому общее время близко к задержке одного ответа, а не к их сумме
+    @Test
+    void exchange_whenManyConcurrentSlowResponses_thenCallerNotBlockedAndRequestsOverlap() {
+        server.createContext("/items", exchange -> {
+            try {
+                Thread.sleep(SERVER_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "[]");
+        });
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        long started = System.nanoTime();
+        List<CompletableFuture<Long>> latencies = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            long sent = System.nanoTime();
+            latencies.add(transport.exchange(new RequestEntity<>(HttpMethod.GET, baseUri.resolve("/items")))
+                    .thenApply(response -> {
+                        assertEquals(HttpStatus.OK, response.getStatusCode());
+                        return (System.nanoTime() - sent) / 1_000_000;
+                    }));
+        }
+        long sendingMs = (System.nanoTime() - started) / 1_000_000;
+        CompletableFuture.allOf(latencies.toArray(new CompletableFuture[0])).join();
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        long[] sorted = latencies.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        log.info("{} одновременных запросов: отправка {} мс, всего {} мс, p50 {} мс, p99 {} мс, потоков было {}, стало {}",
+                CONCURRENT_REQUESTS, sendingMs, elapsedMs, sorted[sorted.length / 2],
+                sorted[sorted.length * 99 / 100], threadsBefore,
+                ManagementFactory.getThreadMXBean().getThreadCount());
+        assertTrue(sendingMs < CONCURRENT_REQUESTS * SERVER_DELAY_MS / 10, () -> "sending took " + sendingMs + " ms");
+        assertTrue(elapsedMs < CONCURRENT_REQUESTS * SERVER_DELAY_MS / 10, () -> "all requests took " + elapsedMs + " ms");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.util.Header;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescingFilterTest {
+
+    private final RequestCoalescingFilter filter = new RequestCoalescingFilter();
+    private final List<RequestEntity<?>> upstreamRequests = new ArrayList<>();
+    private final List<CompletableFuture<ResponseEntity<byte[]>>> upstreamResponses = new ArrayList<>();
+    private final ServerTransport server = request -> {
+        upstreamRequests.add(request);
+        CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+        upstreamResponses.add(response);
+        return response;
+    };
+
+    @Test
+    void filter_whenIdenticalReadsInFlight_thenServerCalledOnceAndResponseSharedWithAll() {
+        CompletableFuture<ResponseEntity<byte[]>> first = filter.filter(get("/items/1", 1L), server);
+        CompletableFuture<ResponseEntity<byte[]>> second = filter.filter(get("/items/1", 1L), server);
+        CompletableFuture<ResponseEntity<byte[]>> third = filter.filter(get("/items/1", 1L), server);
+
+        assertEquals(1, upstreamRequests.size());
+        assertEquals(1, filter.inFlight());
+        upstreamResponses.get(0).complete(response("item"));
+
+        assertEquals("item", body(first.join()));
+        assertEquals("item", body(second.join()));
+        assertEquals("item", body(third.join()));
+        assertEquals(0, filter.inFlight());
+    }
+
+    @Test
+    void filter_whenReadArrivesAfterResponse_thenSentToServerAgain() {
+        filter.filter(get("/items/1", 1L), server);
+        upstreamResponses.get(0).complete(response("old item"));
+
+        CompletableFuture<ResponseEntity<byte[]>> later = filter.filter(get("/items/1", 1L), server);
+        upstreamResponses.get(1).complete(response("new item"));
+
+        assertEquals(2, upstreamRequests.size());
+        assertEquals("new item", body(later.join()));
+    }
+
+    @Test
+    void filter_whenSameItemReadByAnotherUser_thenNotCoalesced() {
+        filter.filter(get("/items/1", 1L), server);
+        filter.filter(get("/items/1", 2L), server);
+
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenSameSearchByAnotherUser_thenCoalesced() {
+        filter.filter(get("/items/search?text=saw&from=0&size=10", 1L), server);
+        filter.filter(get("/items/search?text=saw&from=0&size=10", 2L), server);
+        filter.filter(get("/items/search?text=drill&from=0&size=10", 2L), server);
+
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenIfNoneMatchDiffers_thenNotCoalesced() {
+        RequestEntity<?> conditional = RequestEntity.get(URI.create("http://localhost:9090/items/1"))
+                .header(Header.USER_ID, "1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0abc\"")
+                .build();
+
+        filter.filter(get("/items/1", 1L), server);
+        filter.filter(conditional, server);
+
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenNotGet_thenNeverCoalesced() {
+        filter.filter(request(HttpMethod.PATCH, "/items/1", 1L), server);
+        filter.filter(request(HttpMethod.PATCH, "/items/1", 1L), server);
+
+        assertEquals(2, upstreamRequests.size());
+        assertEquals(0, filter.inFlight());
+    }
+
+    @Test
+    void filter_whenServerCallFails_thenAllWaitingReadsFailAndNextReadRetried() {
+        CompletableFuture<ResponseEntity<byte[]>> first = filter.filter(get("/items/1", 1L), server);
+        CompletableFuture<ResponseEntity<byte[]>> second = filter.filter(get("/items/1", 1L), server);
+        upstreamResponses.get(0).completeExceptionally(new ResourceAccessException("connection refused"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(0, filter.inFlight());
+        filter.filter(get("/items/1", 1L), server);
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenServerCallThrows_thenErrorRethrownAndEntryRemoved() {
+        ServerTransport failing = request -> {
+            throw new ResourceAccessException("connection refused");
+        };
+
+        assertThrows(ResourceAccessException.class, () -> filter.filter(get("/items/1", 1L), failing));
+        assertEquals(0, filter.inFlight());
+    }
+
+    private static ResponseEntity<byte[]> response(String body) {
+        return ResponseEntity.status(HttpStatus.OK).body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static RequestEntity<?> get(String path, long userId) {
+        return request(HttpMethod.GET, path, userId);
+    }
+
+    private static RequestEntity<?> request(HttpMethod method, String path, long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(Header.USER_ID, String.valueOf(userId));
+        return new RequestEntity<>(headers, method, URI.create("http://localhost:9090" + path));
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,208 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.util.Header;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+    private static final String ETAG = "\"0abc\"";
+
+    private final List<RequestEntity<?>> upstreamRequests = new ArrayList<>();
+
+    @Test
+    void filter_whenFreshResponseCached_thenServerNotCalledAgain() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        ServerTransport server = respondingWith(HttpStatus.OK, "item");
+
+        filter.filter(get("/items/1", 1L), server).join();
+        ResponseEntity<byte[]> response = filter.filter(get("/items/1", 1L), server).join();
+
+        assertEquals(1, upstreamRequests.size());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("item", body(response));
+        assertEquals(ETAG, response.getHeaders().getETag());
+    }
+
+    @Test
+    void filter_whenSamePathForAnotherUser_thenCachedSeparately() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        ServerTransport server = respondingWith(HttpStatus.OK, "item");
+
+        filter.filter(get("/items/1", 1L), server).join();
+        filter.filter(get("/items/1", 2L), server).join();
+
+        assertEquals(2, upstreamRequests.size());
+        assertEquals(2, filter.size());
+    }
+
+    @Test
+    void filter_whenPathNotCacheable_thenAlwaysForwarded() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        ServerTransport server = respondingWith(HttpStatus.OK, "[]");
+
+        filter.filter(get("/items/search?text=saw", 1L), server).join();
+        filter.filter(get("/items/search?text=saw", 1L), server).join();
+
+        assertEquals(2, upstreamRequests.size());
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    void filter_whenErrorResponse_thenNotCached() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        ServerTransport server = respondingWith(HttpStatus.NOT_FOUND, "not found");
+
+        filter.filter(get("/users/1", 1L), server).join();
+
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    void filter_whenStaleResponseNotModified_thenRevalidatedWithIfNoneMatchAndCachedBodyReturned() {
+        ResponseCacheFilter filter = filter(Duration.ZERO);
+        filter.filter(get("/users/1", 1L), respondingWith(HttpStatus.OK, "user")).join();
+
+        ResponseEntity<byte[]> response = filter.filter(get("/users/1", 1L),
+                respondingWith(HttpStatus.NOT_MODIFIED, null)).join();
+
+        assertEquals(2, upstreamRequests.size());
+        assertEquals(List.of(ETAG), upstreamRequests.get(1).getHeaders().getIfNoneMatch());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("user", body(response));
+    }
+
+    @Test
+    void filter_whenStaleResponseChanged_thenNewBodyCached() {
+        ResponseCacheFilter filter = filter(Duration.ZERO);
+        filter.filter(get("/users/1", 1L), respondingWith(HttpStatus.OK, "user")).join();
+
+        ResponseEntity<byte[]> response = filter.filter(get("/users/1", 1L),
+                respondingWith(HttpStatus.OK, "renamed user")).join();
+
+        assertEquals("renamed user", body(response));
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    void filter_whenItemPatched_thenItemResponsesOfAllUsersInvalidated() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        ServerTransport server = respondingWith(HttpStatus.OK, "item");
+        filter.filter(get("/items/1", 1L), server).join();
+        filter.filter(get("/items/1", 2L), server).join();
+        filter.filter(get("/items/2", 1L), server).join();
+
+        filter.filter(request(HttpMethod.PATCH, "/items/1", 1L), server).join();
+
+        assertEquals(1, filter.size());
+        filter.filter(get("/items/2", 1L), server).join();
+        assertEquals(4, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenCommentAdded_thenItemInvalidated() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        ServerTransport server = respondingWith(HttpStatus.OK, "item");
+        filter.filter(get("/items/1", 1L), server).join();
+
+        filter.filter(request(HttpMethod.POST, "/items/1/comment", 2L), server).join();
+
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    void filter_whenBookingChanged_thenAllItemsInvalidatedAndUsersKept() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        ServerTransport server = respondingWith(HttpStatus.OK, "body");
+        filter.filter(get("/items/1", 1L), server).join();
+        filter.filter(get("/users/1", 1L), server).join();
+
+        filter.filter(request(HttpMethod.PATCH, "/bookings/5?approved=true", 1L), server).join();
+
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    void filter_whenUserDeleted_thenEverythingInvalidated() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        ServerTransport server = respondingWith(HttpStatus.OK, "body");
+        filter.filter(get("/items/1", 1L), server).join();
+        filter.filter(get("/requests/1", 1L), server).join();
+
+        filter.filter(request(HttpMethod.DELETE, "/users/2", 2L), server).join();
+
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    void filter_whenMutationFails_thenNothingInvalidated() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        filter.filter(get("/items/1", 1L), respondingWith(HttpStatus.OK, "item")).join();
+
+        filter.filter(request(HttpMethod.PATCH, "/items/1", 2L), respondingWith(HttpStatus.FORBIDDEN, "")).join();
+
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    void filter_whenInvalidatedWhileReadInFlight_thenStaleReadNotCached() {
+        ResponseCacheFilter filter = filter(Duration.ofMinutes(1));
+        CompletableFuture<ResponseEntity<byte[]>> pendingRead = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<byte[]>> read = filter.filter(get("/items/1", 1L), request -> pendingRead);
+        filter.filter(request(HttpMethod.PATCH, "/items/1", 1L), respondingWith(HttpStatus.OK, "patched")).join();
+        pendingRead.complete(response(HttpStatus.OK, "old item"));
+
+        assertEquals("old item", body(read.join()));
+        assertEquals(0, filter.size());
+    }
+
+    private ResponseCacheFilter filter(Duration ttl) {
+        ShareItServerProperties properties = new ShareItServerProperties();
+        properties.getCache().setEnabled(true);
+        properties.getCache().setTtl(ttl);
+        return new ResponseCacheFilter(properties);
+    }
+
+    private ServerTransport respondingWith(HttpStatus status, String body) {
+        return request -> {
+            upstreamRequests.add(request);
+            return CompletableFuture.completedFuture(response(status, body));
+        };
+    }
+
+    private static ResponseEntity<byte[]> response(HttpStatus status, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .body(body == null ? null : body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static RequestEntity<?> get(String path, long userId) {
+        return request(HttpMethod.GET, path, userId);
+    }
+
+    private static RequestEntity<?> request(HttpMethod method, String path, long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(Header.USER_ID, String.valueOf(userId));
+        return new RequestEntity<>(headers, method, URI.create("http://localhost:9090" + path));
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.exception.ServerOverloadedException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryFilterTest {
+    private static final RequestEntity<?> GET = new RequestEntity<>(HttpMethod.GET,
+            URI.create("http://localhost:9090/items/1"));
+
+    private final List<Long> jitterBounds = new ArrayList<>();
+    // пауза - половина границы, чтобы тест не зависел от случайности и шёл быстро
+    private final RetryFilter filter = new RetryFilter(properties(), bound -> {
+        jitterBounds.add(bound);
+        return bound / 2;
+    });
+    private final List<RequestEntity<?>> upstreamRequests = new ArrayList<>();
+
+    @Test
+    void filter_whenServerUnavailableThenRecovers_thenRetriedAndRecoveredResponseReturned() {
+        ServerTransport server = respondInTurn(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.BAD_GATEWAY, HttpStatus.OK);
+
+        ResponseEntity<byte[]> response = filter.filter(GET, server).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenAttemptsExhausted_thenLastResponseReturned() {
+        ServerTransport server = respondInTurn(HttpStatus.GATEWAY_TIMEOUT, HttpStatus.GATEWAY_TIMEOUT,
+                HttpStatus.GATEWAY_TIMEOUT, HttpStatus.OK);
+
+        ResponseEntity<byte[]> response = filter.filter(GET, server).join();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertEquals(3, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenClientErrorOrServerError_thenNotRetried() {
+        assertEquals(HttpStatus.NOT_FOUND,
+                filter.filter(GET, respondInTurn(HttpStatus.NOT_FOUND)).join().getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+                filter.filter(GET, respondInTurn(HttpStatus.INTERNAL_SERVER_ERROR)).join().getStatusCode());
+
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenNotGet_thenNotRetried() {
+        RequestEntity<?> patch = new RequestEntity<>(HttpMethod.PATCH, GET.getUrl());
+
+        ResponseEntity<byte[]> response = filter.filter(patch,
+                respondInTurn(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.OK)).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(1, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenTransportThrowsOnEveryAttempt_thenLastErrorReturned() {
+        ServerTransport failing = request -> {
+            upstreamRequests.add(request);
+            throw new ResourceAccessException("connection refused");
+        };
+
+        CompletionException e = assertThrows(CompletionException.class, () -> filter.filter(GET, failing).join());
+
+        assertInstanceOf(ResourceAccessException.class, e.getCause());
+        assertEquals(3, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenRejectedByGateway_thenRethrownWithoutRetry() {
+        ServerTransport overloaded = request -> {
+            upstreamRequests.add(request);
+            throw new ServerOverloadedException("выключатель разомкнут");
+        };
+
+        assertThrows(ServerOverloadedException.class, () -> filter.filter(GET, overloaded));
+        assertEquals(1, upstreamRequests.size());
+    }
+
+    @Test
+    void filter_whenAsyncResponseFails_thenRetriedWithoutBlockingCaller() {
+        List<CompletableFuture<ResponseEntity<byte[]>>> upstreamResponses = new ArrayList<>();
+        ServerTransport server = request -> {
+            upstreamRequests.add(request);
+            CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+            upstreamResponses.add(response);
+            if (upstreamResponses.size() > 1) {
+                response.complete(ResponseEntity.ok().build());
+            }
+            return response;
+        };
+
+        CompletableFuture<ResponseEntity<byte[]>> response = filter.filter(GET, server);
+        upstreamResponses.get(0).completeExceptionally(new ResourceAccessException("read timed out"));
+
+        assertEquals(HttpStatus.OK, response.orTimeout(5, TimeUnit.SECONDS).join().getStatusCode());
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    void backoffMillis_whenAttemptsGrow_thenBoundDoublesUpToMax() {
+        filter.backoffMillis(1);
+        filter.backoffMillis(2);
+        filter.backoffMillis(3);
+        filter.backoffMillis(10);
+
+        assertEquals(List.of(10L, 20L, 40L, 50L), jitterBounds);
+    }
+
+    private ServerTransport respondInTurn(HttpStatus... statuses) {
+        return request -> {
+            upstreamRequests.add(request);
+            HttpStatus status = statuses[Math.min(upstreamRequests.size() - 1, statuses.length - 1)];
+            return CompletableFuture.completedFuture(ResponseEntity.status(status).build());
+        };
+    }
+
+    private static ShareItServerProperties.Retry properties() {
+        ShareItServerProperties.Retry properties = new ShareItServerProperties.Retry();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofMillis(10));
+        properties.setMaxBackoff(Duration.ofMillis(50));
+        return properties;
+    }
+}
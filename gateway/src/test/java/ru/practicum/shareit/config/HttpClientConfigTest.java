@@ -0,0 +1,89 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class HttpClientConfigTest {
+    private final HttpClientConfig config = new HttpClientConfig();
+
+    @Test
+    void serverConnectionManager_whenPoolConfigured_thenLimitsApplied() {
+        ShareItServerProperties properties = new ShareItServerProperties();
+        properties.getPool().setMaxTotal(50);
+        properties.getPool().setMaxPerRoute(20);
+
+        PoolingHttpClientConnectionManager connectionManager = config.serverConnectionManager(properties);
+
+        assertEquals(50, connectionManager.getMaxTotal());
+        assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+        connectionManager.close();
+    }
+
+    @Test
+    void serverConnectionPoolMetrics_whenBound_thenLeasedPendingAndAvailableGaugesRegistered() {
+        PoolingHttpClientConnectionManager connectionManager =
+                config.serverConnectionManager(new ShareItServerProperties());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        config.serverConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        assertNotNull(registry.find("httpcomponents.httpclient.pool.total.connections")
+                .tags("httpclient", HttpClientConfig.POOL_NAME, "state", "leased").gauge());
+        assertNotNull(registry.find("httpcomponents.httpclient.pool.total.connections")
+                .tags("httpclient", HttpClientConfig.POOL_NAME, "state", "available").gauge());
+        assertEquals(0, registry.find("httpcomponents.httpclient.pool.total.pending").gauge().value());
+        assertEquals(200, registry.find("httpcomponents.httpclient.pool.total.max").gauge().value());
+        connectionManager.close();
+    }
+
+    @Test
+    void keepAliveStrategy_whenServerSendsNoKeepAlive_thenConfiguredValueUsed() {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+
+        long keepAlive = HttpClientConfig.keepAliveStrategy(Duration.ofSeconds(30))
+                .getKeepAliveDuration(response, new BasicHttpContext());
+
+        assertEquals(30_000, keepAlive);
+    }
+
+    @Test
+    void keepAliveStrategy_whenServerKeepAliveShorter_thenServerValueUsed() {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setHeader("Keep-Alive", "timeout=5");
+
+        long keepAlive = HttpClientConfig.keepAliveStrategy(Duration.ofSeconds(30))
+                .getKeepAliveDuration(response, new BasicHttpContext());
+
+        assertEquals(5_000, keepAlive);
+    }
+
+    @Test
+    void clientReadTimeouts_whenClientHasOwnTimeout_thenUsedForItsRequestsOnly() {
+        ShareItServerProperties properties = new ShareItServerProperties();
+        ShareItServerProperties.Client users = new ShareItServerProperties.Client();
+        users.setReadTimeout(Duration.ofSeconds(5));
+        properties.getClients().put("users", users);
+
+        HttpClientContext usersContext = (HttpClientContext) HttpClientConfig.clientReadTimeouts(properties)
+                .apply(HttpMethod.GET, URI.create("http://localhost:9090/users/1"));
+        HttpClientContext bookingsContext = (HttpClientContext) HttpClientConfig.clientReadTimeouts(properties)
+                .apply(HttpMethod.GET, URI.create("http://localhost:9090/bookings/owner"));
+
+        assertEquals(5_000, usersContext.getRequestConfig().getSocketTimeout());
+        assertEquals(30_000, bookingsContext.getRequestConfig().getSocketTimeout());
+        assertEquals(2_000, usersContext.getRequestConfig().getConnectTimeout());
+    }
+}
@@ -17,6 +17,9 @@ import org.springframework.test.web.client.MockRestServiceServer;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
@@ -57,7 +60,20 @@ class ItemClientTest {
                 .andExpect(method(HttpMethod.POST))
                 .andRespond(withSuccess(itemDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.itemClient.postItem(itemDto, userId);
+        ResponseEntity dto = this.itemClient.postItem(itemDto, userId).join();
+
+        assertTrue(dto.getStatusCode().is2xxSuccessful());
+    }
+
+    @Test
+    void postItems_whenInvoked_thenStatusIsOk() {
+        List<ItemDto> itemDtos = List.of(ItemDto.builder().build());
+        long userId = 0L;
+        this.server.expect(requestTo(serverUrl + "/items/batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("[" + itemDtoString + "]", MediaType.APPLICATION_JSON));
+
+        ResponseEntity dto = this.itemClient.postItems(itemDtos, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -70,7 +86,7 @@ class ItemClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess(itemDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.itemClient.getItem(itemId, userId);
+        ResponseEntity dto = this.itemClient.getItem(itemId, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -84,7 +100,7 @@ class ItemClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.itemClient.getAllItems(userId, from, size);
+        ResponseEntity dto = this.itemClient.getAllItems(userId, from, size).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -98,7 +114,7 @@ class ItemClientTest {
                 .andExpect(method(HttpMethod.PATCH))
                 .andRespond(withSuccess(itemDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.itemClient.patchItem(itemDto, itemId, userId);
+        ResponseEntity dto = this.itemClient.patchItem(itemDto, itemId, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -111,7 +127,7 @@ class ItemClientTest {
                 .andExpect(method(HttpMethod.DELETE))
                 .andRespond(withSuccess(itemDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.itemClient.deleteItem(itemId, userId);
+        ResponseEntity dto = this.itemClient.deleteItem(itemId, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -126,7 +142,37 @@ class ItemClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.itemClient.searchItems(text, userId, from, size);
+        ResponseEntity dto = this.itemClient.searchItems(text, userId, from, size).join();
+
+        assertTrue(dto.getStatusCode().is2xxSuccessful());
+    }
+
+    @Test
+    void getItemsAvailability() {
+        long userId = 0L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        // значения шаблона кодируются, сервер декодирует их обратно
+        this.server.expect(requestTo(serverUrl +
+                        "/items/availability?itemIds=1%2C2&from=2030-01-01T00%3A00&to=2030-04-01T00%3A00"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess());
+
+        ResponseEntity dto = this.itemClient.getItemsAvailability(List.of(1L, 2L), userId, from, from.plusDays(90)).join();
+
+        assertTrue(dto.getStatusCode().is2xxSuccessful());
+    }
+
+    @Test
+    void getItemAvailability() {
+        long itemId = 0L;
+        long userId = 0L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        // значения шаблона кодируются, сервер декодирует их обратно
+        this.server.expect(requestTo(serverUrl + "/items/0/availability?from=2030-01-01T00%3A00&to=2030-04-01T00%3A00"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess());
+
+        ResponseEntity dto = this.itemClient.getItemAvailability(itemId, userId, from, from.plusDays(90)).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -140,7 +186,7 @@ class ItemClientTest {
                 .andExpect(method(HttpMethod.POST))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.itemClient.postComment(commentDto, itemId, userId);
+        ResponseEntity dto = this.itemClient.postComment(commentDto, itemId, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -17,6 +17,11 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.util.Header;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -51,7 +56,7 @@ class ItemControllerTest {
                 .requestId(0L)
                 .build();
         Long ownerId = 0L;
-        when(itemClient.postItem(any(), anyLong())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(itemClient.postItem(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(post("/items")
                         .content(mapper.writeValueAsString(dto))
@@ -139,12 +144,67 @@ class ItemControllerTest {
         verify(itemClient, never()).postItem(dto, ownerId);
     }
 
+    @SneakyThrows
+    @Test
+    void postItems_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
+        List<ItemDto> dtos = List.of(
+                ItemDto.builder().name("name").description("description").available(true).build(),
+                ItemDto.builder().name("name2").description("description2").available(false).build());
+        Long ownerId = 0L;
+        when(itemClient.postItems(anyList(), anyLong())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
+
+        mvc.perform(post("/items/batch")
+                        .content(mapper.writeValueAsString(dtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Header.USER_ID, ownerId))
+                .andExpect(status().isOk());
+
+        verify(itemClient).postItems(dtos, ownerId);
+    }
+
+    @SneakyThrows
+    @Test
+    void postItems_whenOneItemDtoHasBlankName_thenStatusIsBadRequestAndClientMethodNeverCalled() {
+        List<ItemDto> dtos = List.of(
+                ItemDto.builder().name("name").description("description").available(true).build(),
+                ItemDto.builder().name(" ").description("description2").available(false).build());
+        Long ownerId = 0L;
+
+        mvc.perform(post("/items/batch")
+                        .content(mapper.writeValueAsString(dtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Header.USER_ID, ownerId))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).postItems(anyList(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void postItems_whenListIsEmpty_thenStatusIsBadRequestAndClientMethodNeverCalled() {
+        Long ownerId = 0L;
+
+        mvc.perform(post("/items/batch")
+                        .content("[]")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Header.USER_ID, ownerId))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).postItems(anyList(), anyLong());
+    }
+
     @SneakyThrows
     @Test
     void getItem_whenInvoked_StatusIsOkAndClientMethodCalled() {
         Long itemId = 0L;
         Long userId = 0L;
-        when(itemClient.getItem(itemId, userId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(itemClient.getItem(itemId, userId)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/items/{itemId}", itemId)
                         .header(Header.USER_ID, userId))
@@ -153,13 +213,82 @@ class ItemControllerTest {
         verify(itemClient).getItem(itemId, userId);
     }
 
+    @SneakyThrows
+    @Test
+    void getItemAvailability_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
+        Long itemId = 0L;
+        Long userId = 0L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(90);
+        when(itemClient.getItemAvailability(itemId, userId, from, to)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
+
+        mvc.perform(get("/items/{itemId}/availability", itemId)
+                        .header(Header.USER_ID, userId)
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getItemAvailability(itemId, userId, from, to);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemAvailability_whenFromNotBeforeTo_thenStatusIsBadRequestAndClientMethodNeverCalled() {
+        Long itemId = 0L;
+        Long userId = 0L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        mvc.perform(get("/items/{itemId}/availability", itemId)
+                        .header(Header.USER_ID, userId)
+                        .param("from", from.toString())
+                        .param("to", from.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).getItemAvailability(anyLong(), anyLong(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemsAvailability_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
+        Long userId = 0L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(90);
+        when(itemClient.getItemsAvailability(List.of(1L, 2L), userId, from, to))
+                .thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
+
+        mvc.perform(get("/items/availability")
+                        .header(Header.USER_ID, userId)
+                        .param("itemIds", "1,2")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getItemsAvailability(List.of(1L, 2L), userId, from, to);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemsAvailability_whenTooManyItems_thenStatusIsBadRequestAndClientMethodNeverCalled() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        String itemIds = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        mvc.perform(get("/items/availability")
+                        .header(Header.USER_ID, 0L)
+                        .param("itemIds", itemIds)
+                        .param("from", from.toString())
+                        .param("to", from.plusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).getItemsAvailability(any(), anyLong(), any(), any());
+    }
+
     @SneakyThrows
     @Test
     void getAllItems_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
         Long userId = 0L;
         Integer from = 0;
         Integer size = 10;
-        when(itemClient.getAllItems(userId, from, size)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(itemClient.getAllItems(userId, from, size)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/items")
                         .header(Header.USER_ID, userId)
@@ -215,7 +344,7 @@ class ItemControllerTest {
                 .requestId(0L)
                 .build();
         Long ownerId = 0L;
-        when(itemClient.patchItem(dto, itemId, ownerId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(itemClient.patchItem(dto, itemId, ownerId)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(patch("/items/{itemId}", itemId)
                         .content(mapper.writeValueAsString(dto))
@@ -236,7 +365,7 @@ class ItemControllerTest {
     void deleteItem_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
         Long itemId = 0L;
         Long userId = 0L;
-        when(itemClient.getItem(itemId, userId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(itemClient.getItem(itemId, userId)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(delete("/items/{itemId}", itemId)
                         .header(Header.USER_ID, userId))
@@ -253,7 +382,7 @@ class ItemControllerTest {
         Integer size = 10;
         Long userId = 0L;
         when(itemClient.searchItems(text, userId, from, size))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+                .thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/items/search")
                         .param("text", text)
@@ -308,7 +437,7 @@ class ItemControllerTest {
         Long userId = 0L;
         Long itemId = 0L;
         when(itemClient.postComment(commentDto, itemId, userId))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+                .thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(post("/items/{itemId}/comment", itemId)
                         .content(mapper.writeValueAsString(commentDto))
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.config.RateLimitConfig;
+import ru.practicum.shareit.config.ShareItServerProperties;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.util.Header;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// профиль test, с которым запускаются тесты, выключает лимиты
+@WebMvcTest(controllers = ItemController.class, properties = {
+        "shareit-server.rate-limit.enabled=true",
+        "shareit-server.rate-limit.search.permits-per-second=0.001",
+        "shareit-server.rate-limit.search.burst=1"})
+@Import(RateLimitConfig.class)
+@EnableConfigurationProperties(ShareItServerProperties.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class RateLimitInterceptorTest {
+
+    private final MockMvc mvc;
+
+    @MockBean
+    private final ItemClient itemClient;
+
+    @SneakyThrows
+    @Test
+    void searchItems_whenUserExceededLimit_thenTooManyRequestsWithRetryAfterAndOtherUsersServed() {
+        when(itemClient.searchItems(any(), anyLong(), anyInt(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
+
+        MvcResult result = mvc.perform(get("/items/search").header(Header.USER_ID, 1L).param("text", "saw"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        mvc.perform(get("/items/search").header(Header.USER_ID, 1L).param("text", "saw"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1000"));
+        mvc.perform(get("/items/search").header(Header.USER_ID, 2L).param("text", "saw"))
+                .andExpect(request().asyncStarted());
+
+        verify(itemClient, times(2)).searchItems(any(), anyLong(), anyInt(), anyInt());
+    }
+}
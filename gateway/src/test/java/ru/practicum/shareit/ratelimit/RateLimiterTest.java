@@ -0,0 +1,105 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.config.ShareItServerProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(SECOND);
+
+    @Test
+    void tryAcquire_whenBurstUsed_thenRejectedUntilTokenRefilled() {
+        RateLimiter rateLimiter = rateLimiter(2, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Duration.ZERO, rateLimiter.tryAcquire("1", EndpointClass.SEARCH));
+        }
+        Duration retryAfter = rateLimiter.tryAcquire("1", EndpointClass.SEARCH);
+        now.addAndGet(SECOND / 2);
+
+        assertEquals(Duration.ofMillis(500), retryAfter);
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("1", EndpointClass.SEARCH));
+        assertFalse(rateLimiter.tryAcquire("1", EndpointClass.SEARCH).isZero());
+        assertEquals(2, rateLimiter.rejected());
+    }
+
+    @Test
+    void tryAcquire_whenIdleLongerThanBurst_thenBurstNotAccumulatedBeyondCapacity() {
+        RateLimiter rateLimiter = rateLimiter(1, 2);
+        rateLimiter.tryAcquire("1", EndpointClass.OTHER);
+        now.addAndGet(60 * SECOND);
+
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("1", EndpointClass.OTHER));
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("1", EndpointClass.OTHER));
+        assertFalse(rateLimiter.tryAcquire("1", EndpointClass.OTHER).isZero());
+    }
+
+    @Test
+    void tryAcquire_whenAnotherUserOrEndpointClass_thenLimitedSeparately() {
+        RateLimiter rateLimiter = rateLimiter(1, 1);
+
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("1", EndpointClass.SEARCH));
+        assertFalse(rateLimiter.tryAcquire("1", EndpointClass.SEARCH).isZero());
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("2", EndpointClass.SEARCH));
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("1", EndpointClass.BOOKINGS));
+    }
+
+    @Test
+    void tryAcquire_whenCalledConcurrently_thenExactlyBurstGranted() throws Exception {
+        int burst = 100;
+        RateLimiter rateLimiter = rateLimiter(1, burst);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int granted = 0;
+                for (int i = 0; i < 1000; i++) {
+                    if (rateLimiter.tryAcquire("1", EndpointClass.SEARCH).isZero()) {
+                        granted++;
+                    }
+                }
+                return granted;
+            }));
+        }
+        start.countDown();
+        int granted = 0;
+        for (Future<Integer> result : results) {
+            granted += result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(burst, granted);
+        assertEquals(8 * 1000 - burst, rateLimiter.rejected());
+    }
+
+    @Test
+    void of_whenPathMatched_thenEndpointClassResolved() {
+        assertEquals(EndpointClass.SEARCH, EndpointClass.of("/items/search"));
+        assertEquals(EndpointClass.BOOKINGS, EndpointClass.of("/bookings/owner"));
+        assertEquals(EndpointClass.OTHER, EndpointClass.of("/items/1"));
+    }
+
+    private RateLimiter rateLimiter(double permitsPerSecond, int burst) {
+        ShareItServerProperties.RateLimit properties = new ShareItServerProperties().getRateLimit();
+        ShareItServerProperties.Limit limit = new ShareItServerProperties.Limit(permitsPerSecond, burst);
+        properties.setSearch(limit);
+        properties.setBookings(limit);
+        properties.setOther(limit);
+        return new RateLimiter(properties, now::get);
+    }
+}
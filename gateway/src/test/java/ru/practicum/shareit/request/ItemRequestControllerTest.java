@@ -16,6 +16,7 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.util.Header;
 
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -49,7 +50,7 @@ class ItemRequestControllerTest {
     void postItemRequest_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
         Long userId = 0L;
         when(requestClient.postItemRequest(itemRequestDto, userId))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+                .thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(post("/requests")
                         .header(Header.USER_ID, userId)
@@ -86,7 +87,7 @@ class ItemRequestControllerTest {
     @Test
     void getRequestsByUser_whenInvoked_thenStatusIsOkClientMethodCalled() {
         Long userId = 0L;
-        when(requestClient.getRequestsByUser(userId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(requestClient.getRequestsByUser(userId)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/requests")
                         .header(Header.USER_ID, userId))
@@ -101,7 +102,7 @@ class ItemRequestControllerTest {
         Integer from = 0;
         Integer size = 10;
         Long userId = 0L;
-        when(requestClient.getAllRequests(from, size, userId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(requestClient.getAllRequests(from, size, userId)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/requests/all")
                         .header(Header.USER_ID, userId)
@@ -149,7 +150,7 @@ class ItemRequestControllerTest {
     void getRequest_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
         Long requestId = 0L;
         Long userId = 0L;
-        when(requestClient.getRequest(requestId, userId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(requestClient.getRequest(requestId, userId)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/requests/{requestId}", requestId)
                         .header(Header.USER_ID, userId))
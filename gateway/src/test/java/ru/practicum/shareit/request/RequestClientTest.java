@@ -52,7 +52,7 @@ class RequestClientTest {
                 .andExpect(method(HttpMethod.POST))
                 .andRespond(withSuccess(requestDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.client.postItemRequest(itemRequestDto, userId);
+        ResponseEntity dto = this.client.postItemRequest(itemRequestDto, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -64,7 +64,7 @@ class RequestClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.client.getRequestsByUser(userId);
+        ResponseEntity dto = this.client.getRequestsByUser(userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -78,7 +78,7 @@ class RequestClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.client.getAllRequests(from, size, userId);
+        ResponseEntity dto = this.client.getAllRequests(from, size, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -91,7 +91,7 @@ class RequestClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.client.getRequest(requestId, userId);
+        ResponseEntity dto = this.client.getRequest(requestId, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
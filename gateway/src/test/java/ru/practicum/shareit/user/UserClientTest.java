@@ -10,15 +10,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.client.MockRestServiceServer;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
 @RunWith(SpringRunner.class)
@@ -51,7 +56,46 @@ class UserClientTest {
                 .andExpect(method(HttpMethod.POST))
                 .andRespond(withSuccess(userDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.client.postUser(userDto);
+        ResponseEntity dto = this.client.postUser(userDto).join();
+
+        assertTrue(dto.getStatusCode().is2xxSuccessful());
+    }
+
+    @Test
+    void getUser_whenInvoked_thenBodyPassedThroughAsServerBytes() {
+        String body = "{\"id\":0,  \"name\":\"name\",\"email\":\"user@email.com\"}";
+        this.server.expect(requestTo(serverUrl + "/users/0"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+
+        ResponseEntity dto = this.client.getUser(0L).join();
+
+        assertEquals(MediaType.APPLICATION_JSON, dto.getHeaders().getContentType());
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), (byte[]) dto.getBody());
+    }
+
+    @Test
+    void getUser_whenServerRespondsNotFound_thenStatusBodyAndHeadersPassedThrough() {
+        String error = "{\"error\":\"User with id 0 not found\"}";
+        this.server.expect(requestTo(serverUrl + "/users/0"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity dto = this.client.getUser(0L).join();
+
+        assertEquals(HttpStatus.NOT_FOUND, dto.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, dto.getHeaders().getContentType());
+        assertArrayEquals(error.getBytes(StandardCharsets.UTF_8), (byte[]) dto.getBody());
+    }
+
+    @Test
+    void postUsers_whenInvoked_thenStatusIsOk() {
+        List<UserDto> userDtos = List.of(UserDto.builder().build());
+        this.server.expect(requestTo(serverUrl + "/users/batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("[" + userDtoString + "]", MediaType.APPLICATION_JSON));
+
+        ResponseEntity dto = this.client.postUsers(userDtos).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -63,7 +107,7 @@ class UserClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess(userDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.client.getUser(userId);
+        ResponseEntity dto = this.client.getUser(userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -74,7 +118,7 @@ class UserClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.client.getAllUsers();
+        ResponseEntity dto = this.client.getAllUsers().join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -87,7 +131,7 @@ class UserClientTest {
                 .andExpect(method(HttpMethod.PATCH))
                 .andRespond(withSuccess(userDtoString, MediaType.APPLICATION_JSON));
 
-        ResponseEntity dto = this.client.patchUser(userDto, userId);
+        ResponseEntity dto = this.client.patchUser(userDto, userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -99,7 +143,7 @@ class UserClientTest {
                 .andExpect(method(HttpMethod.DELETE))
                 .andRespond(withSuccess());
 
-        ResponseEntity dto = this.client.deleteUser(userId);
+        ResponseEntity dto = this.client.deleteUser(userId).join();
 
         assertTrue(dto.getStatusCode().is2xxSuccessful());
     }
@@ -16,6 +16,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -49,7 +51,7 @@ class UserControllerTest {
     @SneakyThrows
     @Test
     void postUser_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
-        when(userClient.postUser(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(userClient.postUser(any())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(post("/users")
                         .content(mapper.writeValueAsString(dto))
@@ -64,6 +66,37 @@ class UserControllerTest {
         verify(userClient).postUser(dto);
     }
 
+    @SneakyThrows
+    @Test
+    void postUsers_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
+        List<UserDto> dtos = List.of(dto, dto.toBuilder().id(1L).email("email2@email.com").build());
+        when(userClient.postUsers(anyList())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
+
+        mvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(dtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(userClient).postUsers(dtos);
+    }
+
+    @SneakyThrows
+    @Test
+    void postUsers_whenOneEmailIsWrong_thenStatusIsBadRequestAndClientMethodNeverCalled() {
+        List<UserDto> dtos = List.of(dto, dto.toBuilder().id(1L).email("wrong.email.com").build());
+
+        mvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(dtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(userClient, never()).postUsers(anyList());
+    }
+
     @SneakyThrows
     @Test
     void postUser_whenInvokedWrongEmail_thenStatusIsBadRequestAndClientMethodNeverCalled() {
@@ -116,7 +149,7 @@ class UserControllerTest {
     @Test
     void getUser_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
         Long userId = 0L;
-        when(userClient.getUser(anyLong())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(userClient.getUser(anyLong())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/users/{userId}", userId))
                 .andExpect(status().isOk());
@@ -127,7 +160,7 @@ class UserControllerTest {
     @SneakyThrows
     @Test
     void getAllUsers_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
-        when(userClient.getAllUsers()).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(userClient.getAllUsers()).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(get("/users"))
                 .andExpect(status().isOk())
@@ -140,7 +173,7 @@ class UserControllerTest {
     @Test
     void patchUser_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
         Long userId = 0L;
-        when(userClient.patchUser(any(), anyLong())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(userClient.patchUser(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         String result = mvc.perform(patch("/users/{userId}", userId)
                         .content(mapper.writeValueAsString(dto))
@@ -173,7 +206,7 @@ class UserControllerTest {
     @Test
     void deleteUser_whenInvoked_thenStatusIsOkAndClientMethodCalled() {
         Long userId = 0L;
-        when(userClient.deleteUser(userId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(userClient.deleteUser(userId)).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.OK)));
 
         mvc.perform(delete("/users/{userId}", userId))
                 .andExpect(status().isOk());
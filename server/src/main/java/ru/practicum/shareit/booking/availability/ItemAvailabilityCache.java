@@ -0,0 +1,159 @@
+package ru.practicum.shareit.booking.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.event.ItemDeletedEvent;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш календарей занятости вещей. Календарь загружается из базы данных при первом обращении
+ * и далее дополняется после коммита одобрения бронирования, поэтому запросы доступности
+ * не читают таблицу бронирований. Изменения, сделанные другими экземплярами сервера,
+ * становятся видны после истечения срока жизни записи. Срок отсчитывается от загрузки календаря
+ * и не продлевается одобрениями.
+ */
+@Component
+@Slf4j
+public class ItemAvailabilityCache {
+
+    private static final int CHANGE_STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, ItemCalendar> calendars;
+    // счётчики изменений календарей по группам вещей; календарь, во время загрузки которого
+    // изменилась его группа, не остаётся в кэше, так как мог не увидеть одобрение
+    private final AtomicLongArray changes = new AtomicLongArray(CHANGE_STRIPES);
+
+    @Autowired
+    public ItemAvailabilityCache(BookingRepository bookingRepository,
+                                 @Value("${shareit.availability.cache-spec}") String spec,
+                                 @Value("${shareit.availability.cache-ttl}") Duration ttl) {
+        this(bookingRepository, spec, ttl, Ticker.systemTicker());
+    }
+
+    ItemAvailabilityCache(BookingRepository bookingRepository, String spec, Duration ttl, Ticker ticker) {
+        this.bookingRepository = bookingRepository;
+        this.calendars = Caffeine.from(spec)
+                .expireAfter(new ExpireAfterLoad(ttl.toNanos()))
+                .ticker(ticker)
+                .build();
+    }
+
+    // слоты существующих вещей; отсутствующие в кэше календари загружаются одним запросом,
+    // вещей, которых нет в базе данных, в результате нет
+    public Map<Long, List<AvailabilitySlotDto>> getSlots(Collection<Long> itemIds,
+                                                         LocalDateTime from,
+                                                         LocalDateTime to) {
+        Map<Long, ItemCalendar> found = new HashMap<>(calendars.getAllPresent(itemIds));
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> !found.containsKey(itemId))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            found.putAll(loadAll(missing));
+        }
+        Map<Long, List<AvailabilitySlotDto>> slots = new HashMap<>();
+        found.forEach((itemId, calendar) -> slots.put(itemId, calendar.slots(from, to)));
+        return slots;
+    }
+
+    // счётчик увеличивается до изменения записи: загрузка, положившая календарь позже, увидит новое значение
+    // и удалит календарь, а положившая раньше получит одобрение через computeIfPresent
+    @TransactionalEventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        if (event.getStatus() != BookingStatus.APPROVED) {
+            return;
+        }
+        log.debug("Обновление календаря занятости вещи id={}", event.getItemId());
+        changes.incrementAndGet(stripe(event.getItemId()));
+        calendars.asMap().computeIfPresent(event.getItemId(),
+                (itemId, calendar) -> calendar.with(event.getStart(), event.getEnd()));
+    }
+
+    @TransactionalEventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        changes.incrementAndGet(stripe(event.getItemId()));
+        calendars.invalidate(event.getItemId());
+    }
+
+    // вместе с пользователем удаляются его бронирования чужих вещей
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        for (int i = 0; i < CHANGE_STRIPES; i++) {
+            changes.incrementAndGet(i);
+        }
+        calendars.invalidateAll();
+    }
+
+    // отсутствующие календари загружаются одним запросом
+    private Map<Long, ItemCalendar> loadAll(List<Long> itemIds) {
+        log.debug("Загрузка календарей занятости вещей {}", itemIds);
+        long[] changesBefore = itemIds.stream().mapToLong(itemId -> changes.get(stripe(itemId))).toArray();
+        Map<Long, List<BookingIntervalDto>> intervals = bookingRepository
+                .findIntervalsByItemIds(itemIds, BookingStatus.APPROVED).stream()
+                .collect(Collectors.groupingBy(BookingIntervalDto::getItemId));
+        Map<Long, ItemCalendar> loaded = new HashMap<>();
+        for (int i = 0; i < itemIds.size(); i++) {
+            Long itemId = itemIds.get(i);
+            List<BookingIntervalDto> itemIntervals = intervals.get(itemId);
+            if (itemIntervals == null) {
+                continue;
+            }
+            ItemCalendar calendar = ItemCalendar.of(itemIntervals);
+            loaded.put(itemId, calendar);
+            calendars.asMap().putIfAbsent(itemId, calendar);
+            if (changes.get(stripe(itemId)) != changesBefore[i]) {
+                log.debug("Календарь вещи id={} изменился во время загрузки и не сохраняется в кэше", itemId);
+                calendars.invalidate(itemId);
+            }
+        }
+        return loaded;
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), CHANGE_STRIPES);
+    }
+
+    // одобрение изменяет запись, но не продлевает её: иначе календарь часто бронируемой вещи
+    // никогда не перечитывался бы из базы данных
+    private static class ExpireAfterLoad implements Expiry<Long, ItemCalendar> {
+        private final long ttlNanos;
+
+        ExpireAfterLoad(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Long itemId, ItemCalendar calendar, long currentTime) {
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, ItemCalendar calendar, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, ItemCalendar calendar, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking.availability;
+
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Занятость вещи: непересекающиеся интервалы одобренных бронирований [start, end),
+ * упорядоченные по началу и хранящиеся в двух массивах секунд.
+ * Экземпляр неизменяем, добавление бронирования возвращает новый календарь,
+ * поэтому чтение не требует блокировок.
+ * Границы бронирований округляются до секунды в сторону расширения интервала.
+ */
+final class ItemCalendar {
+    static final ItemCalendar EMPTY = new ItemCalendar(new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+
+    private ItemCalendar(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    static ItemCalendar of(List<BookingIntervalDto> intervals) {
+        List<BookingIntervalDto> sorted = intervals.stream()
+                .filter(interval -> interval.getStart() != null)
+                .sorted(Comparator.comparing(BookingIntervalDto::getStart))
+                .collect(Collectors.toList());
+        long[] starts = new long[sorted.size()];
+        long[] ends = new long[sorted.size()];
+        int count = 0;
+        for (BookingIntervalDto interval : sorted) {
+            long start = floor(interval.getStart());
+            long end = ceil(interval.getEnd());
+            if (count > 0 && start <= ends[count - 1]) {
+                ends[count - 1] = Math.max(ends[count - 1], end);
+                continue;
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+        return new ItemCalendar(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
+    ItemCalendar with(LocalDateTime start, LocalDateTime end) {
+        long newStart = floor(start);
+        long newEnd = ceil(end);
+        // интервалы [from, to) пересекаются с новым или примыкают к нему и сливаются в один
+        int from = firstEndNotBefore(newStart);
+        int to = from;
+        while (to < starts.length && starts[to] <= newEnd) {
+            to++;
+        }
+        if (from < to) {
+            newStart = Math.min(newStart, starts[from]);
+            newEnd = Math.max(newEnd, ends[to - 1]);
+        }
+        int size = starts.length - (to - from) + 1;
+        long[] newStarts = new long[size];
+        long[] newEnds = new long[size];
+        System.arraycopy(starts, 0, newStarts, 0, from);
+        System.arraycopy(ends, 0, newEnds, 0, from);
+        newStarts[from] = newStart;
+        newEnds[from] = newEnd;
+        System.arraycopy(starts, to, newStarts, from + 1, starts.length - to);
+        System.arraycopy(ends, to, newEnds, from + 1, ends.length - to);
+        return new ItemCalendar(newStarts, newEnds);
+    }
+
+    // чередующиеся свободные и занятые слоты, покрывающие окно [from, to)
+    List<AvailabilitySlotDto> slots(LocalDateTime from, LocalDateTime to) {
+        List<AvailabilitySlotDto> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (int i = firstEndAfter(floor(from)); i < starts.length && toTime(starts[i]).isBefore(to); i++) {
+            LocalDateTime busyStart = max(cursor, toTime(starts[i]));
+            LocalDateTime busyEnd = min(to, toTime(ends[i]));
+            if (cursor.isBefore(busyStart)) {
+                slots.add(new AvailabilitySlotDto(cursor, busyStart, true));
+            }
+            slots.add(new AvailabilitySlotDto(busyStart, busyEnd, false));
+            cursor = busyEnd;
+        }
+        if (cursor.isBefore(to)) {
+            slots.add(new AvailabilitySlotDto(cursor, to, true));
+        }
+        return slots;
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    // интервалы не пересекаются и не примыкают друг к другу, поэтому концы строго возрастают
+    private int firstEndNotBefore(long time) {
+        int index = Arrays.binarySearch(ends, time);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private int firstEndAfter(long time) {
+        int index = Arrays.binarySearch(ends, time);
+        return index < 0 ? -index - 1 : index + 1;
+    }
+
+    private static long floor(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long ceil(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        return time.getNano() == 0 ? seconds : seconds + 1;
+    }
+
+    private static LocalDateTime toTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+        return first.isBefore(second) ? first : second;
+    }
+}
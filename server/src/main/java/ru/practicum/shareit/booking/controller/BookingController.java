@@ -2,14 +2,27 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.export.BookingExport;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ResourceValidationException;
 import ru.practicum.shareit.util.Header;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,6 +48,13 @@ public class BookingController {
         return BookingMapper.toBookingDto(bookingService.updateBooking(ownerId, bookingId, approved));
     }
 
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> changeBookingStatuses(@RequestHeader(Header.USER_ID) Long ownerId,
+                                                                @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Получен запрос на изменение статусов {} бронирований от пользователя c id={}", decisions.size(), ownerId);
+        return bookingService.updateBookings(ownerId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader(Header.USER_ID) Long userId, @PathVariable Long bookingId) {
         log.info("Получен запрос на просмотр бронирования с id={} от пользователя с id={}", bookingId, userId);
@@ -42,24 +62,60 @@ public class BookingController {
     }
 
     @GetMapping
-    public Collection<BookingDto> getAllUserBookings(@RequestHeader(Header.USER_ID) Long userId,
-                                                     @RequestParam(defaultValue = "ALL") String state,
-                                                     @RequestParam Integer from,
-                                                     @RequestParam Integer size) {
+    public ResponseEntity<List<BookingDto>> getAllUserBookings(@RequestHeader(Header.USER_ID) Long userId,
+                                                               @RequestParam(defaultValue = "ALL") String state,
+                                                               @RequestParam(defaultValue = "0") Integer from,
+                                                               @RequestParam Integer size,
+                                                               @RequestParam(required = false) String cursor,
+                                                               WebRequest request) {
         log.info("Получен запрос на просмотр всех бронирований состояния:{} пользователя с id={}", state, userId);
-        return bookingService.getAllUserBookingsByState(userId, state, from, size).stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        if (request.checkNotModified(bookingService.getUserBookingsETag(userId, state))) {
+            return null;
+        }
+        Collection<Booking> bookings = after == null
+                ? bookingService.getAllUserBookingsByState(userId, state, from, size)
+                : bookingService.getUserBookingsAfter(userId, state, after, size);
+        return toPage(bookings, size);
     }
 
     @GetMapping("/owner")
-    public Collection<BookingDto> getAllOwnerBookings(@RequestHeader(Header.USER_ID) Long ownerId,
-                                                      @RequestParam(defaultValue = "ALL") String state,
-                                                      @RequestParam Integer from,
-                                                      @RequestParam Integer size) {
+    public ResponseEntity<List<BookingDto>> getAllOwnerBookings(@RequestHeader(Header.USER_ID) Long ownerId,
+                                                                @RequestParam(defaultValue = "ALL") String state,
+                                                                @RequestParam(defaultValue = "0") Integer from,
+                                                                @RequestParam Integer size,
+                                                                @RequestParam(required = false) String cursor,
+                                                                WebRequest request) {
         log.info("Получен запрос на просмотр всех бронирований состояния:{} владельца с id={}", state, ownerId);
-        return bookingService.getAllOwnerBookingsByState(ownerId, state, from, size).stream()
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        if (request.checkNotModified(bookingService.getOwnerBookingsETag(ownerId, state))) {
+            return null;
+        }
+        Collection<Booking> bookings = after == null
+                ? bookingService.getAllOwnerBookingsByState(ownerId, state, from, size)
+                : bookingService.getOwnerBookingsAfter(ownerId, state, after, size);
+        return toPage(bookings, size);
+    }
+
+    // ответ пишется в отдельном потоке по мере чтения курсора, без загрузки всей истории в память
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(@RequestHeader(Header.USER_ID) Long ownerId,
+                                                                     @RequestParam(defaultValue = "CSV") String format) {
+        log.info("Получен запрос на выгрузку бронирований владельца с id={} в формате {}", ownerId, format);
+        BookingExportFormat exportFormat = BookingExportFormat.from(format)
+                .orElseThrow(() -> new ResourceValidationException(String.format("Unknown format: %s", format)));
+        BookingExport export = bookingService.exportOwnerBookings(ownerId, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        String.format("attachment; filename=\"bookings.%s\"", exportFormat.getExtension()))
+                .body(export::writeTo);
+    }
+
+    private static ResponseEntity<List<BookingDto>> toPage(Collection<Booking> bookings, Integer size) {
+        List<BookingDto> dtos = bookings.stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
+        return PageCursor.toResponse(dtos, size, b -> PageCursor.of(b.getStart(), b.getId()));
     }
 }
@@ -1,42 +1,179 @@
 package ru.practicum.shareit.booking.dao;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.BookingListVersionDto;
+import ru.practicum.shareit.booking.dto.ShortBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.util.Util;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerIdOrderByStartDesc(Long userId, Pageable page);
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-    List<Booking> findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(Long userId,
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
+
+    // связи загружаются явными JOIN FETCH, а условие ставится на собственный столбец бронирования:
+    // с @EntityGraph Hibernate сравнивал идентификатор присоединённой таблицы, и индексы bookings не использовались
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByBookerIdOrderByStartDescIdDesc(Long userId, Pageable page);
+
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.start <= ?2 AND b.end >= ?3 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDescIdDesc(Long userId,
                                                                                             LocalDateTime start,
                                                                                             LocalDateTime end,
                                                                                             Pageable page);
 
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now, Pageable page);
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.start > ?2 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByBookerIdAndStartAfterOrderByStartDescIdDesc(Long userId, LocalDateTime now, Pageable page);
 
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now, Pageable page);
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.end < ?2 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByBookerIdAndEndBeforeOrderByStartDescIdDesc(Long userId, LocalDateTime now, Pageable page);
 
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatus status, Pageable page);
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.status = ?2 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByBookerIdAndStatusOrderByStartDescIdDesc(Long userId, BookingStatus status, Pageable page);
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long userId, Pageable page);
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+            "WHERE i.ownerId = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByItemOwnerIdOrderByStartDescIdDesc(Long userId, Pageable page);
 
-    List<Booking> findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+            "WHERE i.ownerId = ?1 AND b.start <= ?2 AND b.end >= ?3 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDescIdDesc(
             Long ownerId,
             LocalDateTime start,
             LocalDateTime end,
             Pageable page);
 
-    List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime now, Pageable page);
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+            "WHERE i.ownerId = ?1 AND b.start > ?2 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Long ownerId, LocalDateTime now, Pageable page);
 
-    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime now, Pageable page);
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+            "WHERE i.ownerId = ?1 AND b.end < ?2 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(Long ownerId, LocalDateTime now, Pageable page);
 
-    List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable page);
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+            "WHERE i.ownerId = ?1 AND b.status = ?2 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    List<Booking> findByItemOwnerIdAndStatusOrderByStartDescIdDesc(Long ownerId, BookingStatus status, Pageable page);
 
+    @EntityGraph(attributePaths = {"item"})
+    List<Booking> findAllByIdIn(Collection<Long> bookingIds);
+
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.id = ?1 AND b.status = ?2 ")
     List<Booking> findByItemIdAndStatus(Long itemId, BookingStatus status);
 
+    @Query(" SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.id = ?1 AND b.booker.id = ?2 AND b.end < ?3 ")
     List<Booking> findByItemIdAndBookerIdAndEndBefore(Long itemId, Long userId, LocalDateTime now);
+
+    // пересечение с интервалом [start, end): начало существующего бронирования раньше end, а конец позже start
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId,
+                                                               Collection<BookingStatus> statuses,
+                                                               LocalDateTime end,
+                                                               LocalDateTime start);
+
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(Long itemId,
+                                                                     BookingStatus status,
+                                                                     LocalDateTime end,
+                                                                     LocalDateTime start,
+                                                                     Long bookingId);
+
+    // возвращает 0, если бронирование уже не находится в ожидаемом статусе
+    default int updateStatus(Long bookingId, BookingStatus expectedStatus, BookingStatus newStatus) {
+        return updateStatus(bookingId, expectedStatus, newStatus, Util.now());
+    }
+
+    // массовое обновление обходит @UpdateTimestamp, поэтому время изменения передаётся явно
+    @Modifying
+    @Transactional
+    @Query(" UPDATE Booking b SET b.status = ?3, b.version = b.version + 1, b.updated = ?4 " +
+            "WHERE b.id = ?1 AND b.status = ?2 ")
+    int updateStatus(Long bookingId, BookingStatus expectedStatus, BookingStatus newStatus, LocalDateTime updated);
+
+    @Query(" SELECT new ru.practicum.shareit.booking.dto.ShortBookingDto(b.id, b.booker.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id = ?1 AND b.status = ?2 AND b.start < ?3 " +
+            "ORDER BY b.end DESC ")
+    List<ShortBookingDto> findLastBooking(Long itemId, BookingStatus status, LocalDateTime now, Pageable page);
+
+    @Query(" SELECT new ru.practicum.shareit.booking.dto.ShortBookingDto(b.id, b.booker.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id = ?1 AND b.status = ?2 AND b.start > ?3 " +
+            "ORDER BY b.start ASC ")
+    List<ShortBookingDto> findNextBooking(Long itemId, BookingStatus status, LocalDateTime now, Pageable page);
+
+    // по строке на каждое бронирование и на каждую существующую вещь без бронирований, у которой границы равны null
+    @Query(" SELECT new ru.practicum.shareit.booking.dto.BookingIntervalDto(i.id, b.start, b.end) " +
+            "FROM Item i LEFT JOIN Booking b ON b.item.id = i.id AND b.status = ?2 " +
+            "WHERE i.id IN ?1 ")
+    List<BookingIntervalDto> findIntervalsByItemIds(Collection<Long> itemIds, BookingStatus status);
+
+    // проекция не попадает в контекст персистентности, поэтому поток можно читать до конца без роста памяти
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(" SELECT new ru.practicum.shareit.booking.dto.BookingExportDto(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, u.id, u.name) " +
+            "FROM Booking b JOIN b.item i JOIN b.booker u " +
+            "WHERE i.ownerId = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC ")
+    Stream<BookingExportDto> streamByItemOwnerId(Long ownerId);
+
+    // число бронирований, начавшихся и закончившихся к моменту now, меняется вместе с составом списков по состоянию
+    @Query(" SELECT new ru.practicum.shareit.booking.dto.BookingListVersionDto(COUNT(b), MAX(b.updated), " +
+            "MAX(i.updated), MAX(u.updated), " +
+            "SUM(CASE WHEN b.start <= ?2 THEN 1 ELSE 0 END), SUM(CASE WHEN b.end < ?2 THEN 1 ELSE 0 END)) " +
+            "FROM Booking b JOIN b.item i JOIN b.booker u " +
+            "WHERE u.id = ?1 ")
+    BookingListVersionDto getVersionByBookerId(Long bookerId, LocalDateTime now);
+
+    @Query(" SELECT new ru.practicum.shareit.booking.dto.BookingListVersionDto(COUNT(b), MAX(b.updated), " +
+            "MAX(i.updated), MAX(u.updated), " +
+            "SUM(CASE WHEN b.start <= ?2 THEN 1 ELSE 0 END), SUM(CASE WHEN b.end < ?2 THEN 1 ELSE 0 END)) " +
+            "FROM Booking b JOIN b.item i JOIN b.booker u " +
+            "WHERE i.ownerId = ?1 ")
+    BookingListVersionDto getVersionByItemOwnerId(Long ownerId, LocalDateTime now);
+
+    @Query(" SELECT b FROM Booking b " +
+            "WHERE b.item.id IN ?1 AND b.status = ?2 AND b.start < ?3 " +
+            "AND b.end = (SELECT MAX(l.end) FROM Booking l " +
+            "WHERE l.item.id = b.item.id AND l.status = ?2 AND l.start < ?3) ")
+    List<Booking> findLastBookingsByItemIds(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
+
+    @Query(" SELECT b FROM Booking b " +
+            "WHERE b.item.id IN ?1 AND b.status = ?2 AND b.start > ?3 " +
+            "AND b.start = (SELECT MIN(n.start) FROM Booking n " +
+            "WHERE n.item.id = b.item.id AND n.status = ?2 AND n.start > ?3) ")
+    List<Booking> findNextBookingsByItemIds(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
 }
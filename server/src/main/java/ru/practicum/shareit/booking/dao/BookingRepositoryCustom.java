@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.dao;
+
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.util.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Постраничная выборка бронирований по ключу (start, id) в порядке убывания
+ * и пакетное изменение статусов.
+ */
+public interface BookingRepositoryCustom {
+
+    List<Booking> findByBookerIdAfterCursor(Long bookerId, BookingState state, LocalDateTime now,
+                                            PageCursor cursor, int size);
+
+    List<Booking> findByItemOwnerIdAfterCursor(Long ownerId, BookingState state, LocalDateTime now,
+                                               PageCursor cursor, int size);
+
+    /**
+     * Переводит бронирования в новые статусы одним пакетом запросов. Бронирование меняется,
+     * только если оно ещё находится в ожидаемом статусе.
+     *
+     * @return id бронирований, статус которых был изменён
+     */
+    Set<Long> updateStatuses(Map<Long, BookingStatus> newStatuses, BookingStatus expectedStatus);
+}
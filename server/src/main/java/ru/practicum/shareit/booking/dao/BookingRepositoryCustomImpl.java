@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.util.PageCursor;
+import ru.practicum.shareit.util.Util;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private static final String UPDATE_STATUS_SQL = "UPDATE bookings SET status = ?, version = version + 1, updated = ? " +
+            "WHERE id = ? AND status = ?";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Booking> findByBookerIdAfterCursor(Long bookerId, BookingState state, LocalDateTime now,
+                                                   PageCursor cursor, int size) {
+        return findAfterCursor("b.booker.id", bookerId, state, now, cursor, size);
+    }
+
+    @Override
+    public List<Booking> findByItemOwnerIdAfterCursor(Long ownerId, BookingState state, LocalDateTime now,
+                                                      PageCursor cursor, int size) {
+        return findAfterCursor("b.item.ownerId", ownerId, state, now, cursor, size);
+    }
+
+    private List<Booking> findAfterCursor(String userPath, Long userId, BookingState state, LocalDateTime now,
+                                          PageCursor cursor, int size) {
+        StringBuilder jpql = new StringBuilder(" SELECT b FROM Booking b " +
+                "JOIN FETCH b.item JOIN FETCH b.booker " +
+                "WHERE " + userPath + " = :userId ");
+        switch (state) {
+            case CURRENT:
+                jpql.append("AND b.start <= :now AND b.end >= :now ");
+                break;
+            case FUTURE:
+                jpql.append("AND b.start > :now ");
+                break;
+            case PAST:
+                jpql.append("AND b.end < :now ");
+                break;
+            case WAITING:
+            case REJECTED:
+                jpql.append("AND b.status = :status ");
+                break;
+            default:
+                break;
+        }
+        jpql.append("AND (b.start < :start OR (b.start = :start AND b.id < :id)) ")
+                .append("ORDER BY b.start DESC, b.id DESC ");
+
+        TypedQuery<Booking> query = entityManager.createQuery(jpql.toString(), Booking.class)
+                .setParameter("userId", userId)
+                .setParameter("start", cursor.getTimestamp())
+                .setParameter("id", cursor.getId())
+                .setMaxResults(size);
+        switch (state) {
+            case CURRENT:
+            case FUTURE:
+            case PAST:
+                query.setParameter("now", now);
+                break;
+            case WAITING:
+            case REJECTED:
+                query.setParameter("status", BookingStatus.valueOf(state.name()));
+                break;
+            default:
+                break;
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public Set<Long> updateStatuses(Map<Long, BookingStatus> newStatuses, BookingStatus expectedStatus) {
+        List<Long> bookingIds = new ArrayList<>(newStatuses.keySet());
+        // время изменения берётся из приложения, как и у @UpdateTimestamp, а не из часов базы данных
+        Timestamp now = Timestamp.valueOf(Util.now());
+        List<Object[]> args = bookingIds.stream()
+                .map(id -> new Object[]{newStatuses.get(id).name(), now, id, expectedStatus.name()})
+                .collect(Collectors.toList());
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, args);
+        // драйверы PostgreSQL и H2 возвращают число изменённых строк для каждого запроса пакета
+        Set<Long> updated = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                updated.add(bookingIds.get(i));
+            }
+        }
+        return updated;
+    }
+}
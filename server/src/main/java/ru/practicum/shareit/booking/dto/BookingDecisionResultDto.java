@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class BookingDecisionResultDto {
+    private Long bookingId;
+
+    // статус бронирования после обработки решения, null если бронирование не найдено
+    // или его статус изменён параллельным запросом
+    private BookingStatus status;
+
+    // причина, по которой решение не применено, null при успехе
+    private String error;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class BookingIntervalDto {
+    Long itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+}
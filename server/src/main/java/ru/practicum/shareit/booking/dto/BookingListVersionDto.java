@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводка по бронированиям списка, из которой строится ETag: число строк, последние изменения
+ * бронирований, их вещей и арендаторов и число уже начавшихся и закончившихся бронирований.
+ */
+@Value
+public class BookingListVersionDto {
+    Long count;
+    LocalDateTime updated;
+    LocalDateTime itemsUpdated;
+    LocalDateTime bookersUpdated;
+    Long started;
+    Long ended;
+}
@@ -8,6 +8,8 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+
 @UtilityClass
 public class BookingMapper {
     public static BookingDto toBookingDto(Booking booking) {
@@ -40,4 +42,16 @@ public class BookingMapper {
                 .status(status)
                 .build();
     }
+
+    public static ItemAvailabilityDto toItemAvailabilityDto(Long itemId, List<AvailabilitySlotDto> slots) {
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .nextFree(slots.stream()
+                        .filter(AvailabilitySlotDto::isFree)
+                        .map(AvailabilitySlotDto::getStart)
+                        .findFirst()
+                        .orElse(null))
+                .slots(slots)
+                .build();
+    }
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ItemAvailabilityDto {
+    private Long itemId;
+
+    // начало первого свободного слота в запрошенном периоде, null если вещь занята весь период
+    private LocalDateTime nextFree;
+
+    private List<AvailabilitySlotDto> slots;
+}
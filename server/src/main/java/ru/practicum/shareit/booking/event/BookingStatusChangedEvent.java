@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Value
+public class BookingStatusChangedEvent {
+    Long itemId;
+    BookingStatus status;
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Выгрузка бронирований, которая читает данные из базы только во время записи в поток.
+ */
+@FunctionalInterface
+public interface BookingExport {
+    void writeTo(OutputStream out) throws IOException;
+}
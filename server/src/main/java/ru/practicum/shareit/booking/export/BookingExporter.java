@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Построчная запись бронирований владельца. Строки читаются курсором с фиксированным размером выборки
+ * и сразу пишутся в поток ответа, а проекция в DTO не попадает в контекст персистентности,
+ * поэтому расход памяти не зависит от числа бронирований.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookingExporter {
+    private static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId,bookerName";
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void writeOwnerBookings(Long ownerId, BookingExportFormat format, OutputStream out) throws IOException {
+        log.debug("Выгрузка бронирований владельца id={} в формате {}", ownerId, format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == BookingExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        int count = 0;
+        try (Stream<BookingExportDto> bookings = bookingRepository.streamByItemOwnerId(ownerId)) {
+            for (Iterator<BookingExportDto> it = bookings.iterator(); it.hasNext(); ) {
+                BookingExportDto booking = it.next();
+                writer.write(format == BookingExportFormat.CSV ? toCsv(booking) : objectMapper.writeValueAsString(booking));
+                writer.write('\n');
+                count++;
+            }
+        }
+        writer.flush();
+        log.debug("Выгружено бронирований владельца id={}: {}", ownerId, count);
+    }
+
+    private static String toCsv(BookingExportDto booking) {
+        return String.join(",",
+                String.valueOf(booking.getId()),
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(booking.getStart()),
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(booking.getEnd()),
+                String.valueOf(booking.getStatus()),
+                String.valueOf(booking.getItemId()),
+                escape(booking.getItemName()),
+                String.valueOf(booking.getBookerId()),
+                escape(booking.getBookerName()));
+    }
+
+    // RFC 4180: поле с разделителем, кавычкой или переводом строки заключается в кавычки, кавычки удваиваются
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
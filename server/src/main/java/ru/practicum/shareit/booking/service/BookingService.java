@@ -1,11 +1,21 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingListVersionDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.export.BookingExport;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.util.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
 
@@ -17,15 +27,39 @@ public interface BookingService {
 
     Booking updateBooking(Long ownerId, Long bookingId, Boolean approved);
 
+    List<BookingDecisionResultDto> updateBookings(Long ownerId, List<BookingDecisionDto> decisions);
+
     Collection<Booking> getAllUserBookingsByState(Long userId, String state, Integer from, Integer size);
 
     Collection<Booking> getAllOwnerBookingsByState(Long ownerId, String state, Integer from, Integer size);
 
+    List<Booking> getUserBookingsAfter(Long userId, String state, PageCursor cursor, Integer size);
+
+    List<Booking> getOwnerBookingsAfter(Long ownerId, String state, PageCursor cursor, Integer size);
+
+    // слабый ETag списков бронирований, считается агрегатным запросом без загрузки бронирований
+    String getUserBookingsETag(Long userId, String state);
+
+    String getOwnerBookingsETag(Long ownerId, String state);
+
+    BookingListVersionDto getOwnerBookingsVersion(Long ownerId);
+
+    // владелец проверяется сразу, чтобы ошибка вернулась до начала ответа; бронирования читаются при записи
+    BookingExport exportOwnerBookings(Long ownerId, BookingExportFormat format);
+
     Collection<Booking> getAllByItemIdAndStatus(Long itemId, BookingStatus status);
 
     ShortBookingDto getLastBooking(Long itemId);
 
     ShortBookingDto getNextBooking(Long itemId);
 
+    Map<Long, ShortBookingDto> getLastBookings(Collection<Long> itemIds);
+
+    Map<Long, ShortBookingDto> getNextBookings(Collection<Long> itemIds);
+
     Collection<Booking> getPastUserBookings(Long itemId, Long userId);
+
+    ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemAvailabilityDto> getItemsAvailability(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to);
 }
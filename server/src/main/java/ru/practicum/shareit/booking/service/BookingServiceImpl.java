@@ -2,14 +2,27 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.BookingListVersionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.export.BookingExport;
+import ru.practicum.shareit.booking.export.BookingExporter;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
@@ -18,8 +31,12 @@ import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.PageCursor;
 import ru.practicum.shareit.util.Util;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -27,11 +44,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    // бронирования, которые занимают вещь и не дают создать пересекающееся
+    private static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final Duration MAX_AVAILABILITY_WINDOW = Duration.ofDays(366);
 
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemRepository itemRepository;
-
+    private final ItemAvailabilityCache itemAvailabilityCache;
+    private final BookingExporter bookingExporter;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -55,6 +77,13 @@ public class BookingServiceImpl implements BookingService {
             throw new ResourceValidationException("Некорректное время бронирования");
         }
 
+        if (bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(),
+                ACTIVE_STATUSES,
+                inputBookingDto.getEnd(),
+                inputBookingDto.getStart())) {
+            throw new ResourceValidationException("Вещь уже забронирована на это время");
+        }
+
         Booking booking = BookingMapper.toBooking(inputBookingDto, item, user, BookingStatus.WAITING);
         return bookingRepository.save(booking);
     }
@@ -72,8 +101,8 @@ public class BookingServiceImpl implements BookingService {
     public Booking getBookingByUserId(Long bookingId, Long userId) {
         log.debug("Обработка запроса на просмотр бронирования с id={}", bookingId);
         Booking booking = getBooking(bookingId);
-        User user = userService.getUser(userId);
-        if (!booking.getBooker().getId().equals(user.getId()) && !booking.getItem().getOwnerId().equals(user.getId())) {
+        userService.checkUserExists(userId);
+        if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwnerId().equals(userId)) {
             throw new ResourceNotFoundException("Просмотр доступен только арендатору или владельцу");
         }
         return booking;
@@ -85,9 +114,9 @@ public class BookingServiceImpl implements BookingService {
         log.debug("Обработка запроса на изменение статуса бронирования id={} от пользователя={}",
                 bookingId, ownerId);
         Booking booking = getBooking(bookingId);
-        User owner = userService.getUser(ownerId);
+        userService.checkUserExists(ownerId);
 
-        if (!booking.getItem().getOwnerId().equals(owner.getId())) {
+        if (!booking.getItem().getOwnerId().equals(ownerId)) {
             throw new ResourceNotFoundException(
                     String.format("Только владелец=%d вещи=%d может изменять статус бронирования=%d",
                             booking.getItem().getOwnerId(), booking.getItem().getId(), booking.getId()));
@@ -97,56 +126,136 @@ public class BookingServiceImpl implements BookingService {
             throw new ResourceValidationException("Статус бронирования уже был изменён.");
         }
 
-        Booking bookingForUpdate = booking.toBuilder()
-                .status(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED)
+        if (approved && bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(
+                booking.getItem().getId(),
+                BookingStatus.APPROVED,
+                booking.getEnd(),
+                booking.getStart(),
+                booking.getId())) {
+            throw new ResourceValidationException("Вещь уже забронирована на это время");
+        }
+
+        // статус проверяется повторно в том же запросе, что и меняется: из параллельных решений
+        // по одному бронированию применяется только первое, остальные получают конфликт (409)
+        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, newStatus) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Booking.class, bookingId);
+        }
+
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(booking.getItem().getId(),
+                newStatus,
+                booking.getStart(),
+                booking.getEnd()));
+        return booking.toBuilder()
+                .status(newStatus)
+                .version(booking.getVersion() + 1)
                 .build();
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> updateBookings(Long ownerId, List<BookingDecisionDto> decisions) {
+        log.debug("Обработка запроса на изменение статусов {} бронирований от пользователя={}",
+                decisions.size(), ownerId);
+        userService.checkUserExists(ownerId);
+        Set<Long> bookingIds = decisions.stream().map(BookingDecisionDto::getBookingId).collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdIn(bookingIds).stream()
+                .filter(b -> b.getItem().getOwnerId().equals(ownerId))
+                .collect(Collectors.toMap(Booking::getId, b -> b));
+        Map<Long, List<BookingIntervalDto>> approvedIntervals = findApprovedIntervals(bookings.values());
 
-        return bookingRepository.save(bookingForUpdate);
+        // повторное решение по тому же бронированию не рассматривается, применяется первое
+        Map<Long, BookingDecisionResultDto> results = new LinkedHashMap<>();
+        Map<Long, BookingStatus> transitions = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            if (results.containsKey(bookingId)) {
+                continue;
+            }
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                results.put(bookingId, failed(bookingId, null,
+                        String.format("Бронирование с id=%d не найдено", bookingId)));
+                continue;
+            }
+            if (booking.getStatus() != BookingStatus.WAITING) {
+                results.put(bookingId, failed(bookingId, booking.getStatus(), "Статус бронирования уже был изменён."));
+                continue;
+            }
+            if (decision.getApproved() == null) {
+                results.put(bookingId, failed(bookingId, booking.getStatus(), "Не указано решение по бронированию"));
+                continue;
+            }
+            BookingStatus newStatus = decision.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            if (newStatus == BookingStatus.APPROVED) {
+                // одобренные в этом же пакете бронирования тоже занимают вещь
+                List<BookingIntervalDto> itemIntervals = approvedIntervals.computeIfAbsent(booking.getItem().getId(),
+                        id -> new ArrayList<>());
+                if (overlaps(itemIntervals, booking)) {
+                    results.put(bookingId, failed(bookingId, booking.getStatus(), "Вещь уже забронирована на это время"));
+                    continue;
+                }
+                itemIntervals.add(new BookingIntervalDto(booking.getItem().getId(), booking.getStart(),
+                        booking.getEnd()));
+            }
+            transitions.put(bookingId, newStatus);
+            results.put(bookingId, new BookingDecisionResultDto(bookingId, newStatus, null));
+        }
+
+        Set<Long> updated = transitions.isEmpty()
+                ? Collections.emptySet()
+                : bookingRepository.updateStatuses(transitions, BookingStatus.WAITING);
+        transitions.forEach((bookingId, newStatus) -> {
+            Booking booking = bookings.get(bookingId);
+            if (!updated.contains(bookingId)) {
+                results.put(bookingId, failed(bookingId, null, "Статус бронирования уже был изменён."));
+                return;
+            }
+            eventPublisher.publishEvent(new BookingStatusChangedEvent(booking.getItem().getId(),
+                    newStatus,
+                    booking.getStart(),
+                    booking.getEnd()));
+        });
+        return new ArrayList<>(results.values());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Collection<Booking> getAllUserBookingsByState(Long userId, String state, Integer from, Integer size) {
         log.debug("Обработка запроса на просмотр всех бронирований состояния:{} пользователя с id={}", state, userId);
-        userService.getUser(userId);
+        userService.checkUserExists(userId);
         List<Booking> bookingsByState;
-        BookingState stateValue;
+        BookingState stateValue = parseState(state);
         Pageable page = Util.page(from, size);
 
-        try {
-            stateValue = BookingState.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new ResourceValidationException(String.format("Unknown state: %s", state));
-        }
-
         switch (stateValue) {
             case ALL:
-                bookingsByState = bookingRepository.findByBookerIdOrderByStartDesc(userId, page);
+                bookingsByState = bookingRepository.findByBookerIdOrderByStartDescIdDesc(userId, page);
                 break;
             case CURRENT:
                 bookingsByState = bookingRepository
-                        .findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(userId,
+                        .findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDescIdDesc(userId,
                                 Util.now(),
                                 Util.now(),
                                 page);
                 break;
             case FUTURE:
-                bookingsByState = bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(userId,
+                bookingsByState = bookingRepository.findByBookerIdAndStartAfterOrderByStartDescIdDesc(userId,
                         Util.now(),
                         page);
                 break;
             case PAST:
-                bookingsByState = bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(userId,
+                bookingsByState = bookingRepository.findByBookerIdAndEndBeforeOrderByStartDescIdDesc(userId,
                         Util.now(),
                         page);
                 break;
             case WAITING:
-                bookingsByState = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId,
+                bookingsByState = bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(userId,
                         BookingStatus.WAITING,
                         page);
                 break;
             case REJECTED:
-                bookingsByState = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId,
+                bookingsByState = bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(userId,
                         BookingStatus.REJECTED,
                         page);
                 break;
@@ -160,45 +269,39 @@ public class BookingServiceImpl implements BookingService {
     @Transactional(readOnly = true)
     public Collection<Booking> getAllOwnerBookingsByState(Long ownerId, String state, Integer from, Integer size) {
         log.debug("Обработка запроса на просмотр всех бронирований состояния:{} владельца с id={}", state, ownerId);
-        userService.getUser(ownerId);
+        userService.checkUserExists(ownerId);
         List<Booking> bookingsByState;
-        BookingState stateValue;
+        BookingState stateValue = parseState(state);
         Pageable page = Util.page(from, size);
 
-        try {
-            stateValue = BookingState.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new ResourceValidationException(String.format("Unknown state: %s", state));
-        }
-
         switch (stateValue) {
             case ALL:
-                bookingsByState = bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId, page);
+                bookingsByState = bookingRepository.findByItemOwnerIdOrderByStartDescIdDesc(ownerId, page);
                 break;
             case CURRENT:
                 bookingsByState = bookingRepository
-                        .findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(ownerId,
+                        .findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDescIdDesc(ownerId,
                                 Util.now(),
                                 Util.now(),
                                 page);
                 break;
             case FUTURE:
-                bookingsByState = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId,
+                bookingsByState = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(ownerId,
                         Util.now(),
                         page);
                 break;
             case PAST:
-                bookingsByState = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId,
+                bookingsByState = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(ownerId,
                         Util.now(),
                         page);
                 break;
             case WAITING:
-                bookingsByState = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId,
+                bookingsByState = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(ownerId,
                         BookingStatus.WAITING,
                         page);
                 break;
             case REJECTED:
-                bookingsByState = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId,
+                bookingsByState = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(ownerId,
                         BookingStatus.REJECTED,
                         page);
                 break;
@@ -208,42 +311,181 @@ public class BookingServiceImpl implements BookingService {
         return bookingsByState;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getUserBookingsAfter(Long userId, String state, PageCursor cursor, Integer size) {
+        log.debug("Обработка запроса на просмотр бронирований состояния:{} пользователя с id={} после {}",
+                state, userId, cursor);
+        userService.checkUserExists(userId);
+        return bookingRepository.findByBookerIdAfterCursor(userId, parseState(state), Util.now(),
+                checkBookingCursor(cursor), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getOwnerBookingsAfter(Long ownerId, String state, PageCursor cursor, Integer size) {
+        log.debug("Обработка запроса на просмотр бронирований состояния:{} владельца с id={} после {}",
+                state, ownerId, cursor);
+        userService.checkUserExists(ownerId);
+        return bookingRepository.findByItemOwnerIdAfterCursor(ownerId, parseState(state), Util.now(),
+                checkBookingCursor(cursor), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getUserBookingsETag(Long userId, String state) {
+        log.debug("Вычисление ETag бронирований состояния:{} пользователя с id={}", state, userId);
+        userService.checkUserExists(userId);
+        parseState(state);
+        return ETags.weak(bookingRepository.getVersionByBookerId(userId, Util.now()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getOwnerBookingsETag(Long ownerId, String state) {
+        log.debug("Вычисление ETag бронирований состояния:{} владельца с id={}", state, ownerId);
+        userService.checkUserExists(ownerId);
+        parseState(state);
+        return ETags.weak(getOwnerBookingsVersion(ownerId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingListVersionDto getOwnerBookingsVersion(Long ownerId) {
+        return bookingRepository.getVersionByItemOwnerId(ownerId, Util.now());
+    }
+
+    @Override
+    public BookingExport exportOwnerBookings(Long ownerId, BookingExportFormat format) {
+        log.debug("Обработка запроса на выгрузку бронирований владельца id={}", ownerId);
+        userService.checkUserExists(ownerId);
+        return out -> bookingExporter.writeOwnerBookings(ownerId, format, out);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Booking> getAllByItemIdAndStatus(Long itemId, BookingStatus status) {
-        itemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException(String.format("Вещь с id=%d не найдена", itemId)));
+        checkItemExists(itemId);
         return bookingRepository.findByItemIdAndStatus(itemId, status);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ShortBookingDto getLastBooking(Long itemId) {
-        TreeSet<Booking> bookings = getAllByItemIdAndStatus(itemId, BookingStatus.APPROVED).stream()
-                .filter(b -> b.getEnd().isBefore(Util.now())
-                        || (b.getStart().isBefore(Util.now()) && b.getEnd().isAfter(Util.now())))
-                .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Booking::getEnd))));
-        if (bookings.isEmpty()) {
-            return null;
-        }
-        return BookingMapper.toShortBookingDto(bookings.last());
+        return bookingRepository.findLastBooking(itemId, BookingStatus.APPROVED, Util.now(), Util.page(0, 1)).stream()
+                .findFirst()
+                .orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ShortBookingDto getNextBooking(Long itemId) {
-        TreeSet<Booking> bookings = getAllByItemIdAndStatus(itemId, BookingStatus.APPROVED).stream()
-                .filter(b -> b.getStart().isAfter(Util.now()))
-                .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Booking::getStart))));
-        if (bookings.isEmpty()) {
-            return null;
+        return bookingRepository.findNextBooking(itemId, BookingStatus.APPROVED, Util.now(), Util.page(0, 1)).stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, ShortBookingDto> getLastBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return bookingRepository.findLastBookingsByItemIds(itemIds, BookingStatus.APPROVED, Util.now()).stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), BookingMapper::toShortBookingDto, (b1, b2) -> b1));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, ShortBookingDto> getNextBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
         }
-        return BookingMapper.toShortBookingDto(bookings.first());
+        return bookingRepository.findNextBookingsByItemIds(itemIds, BookingStatus.APPROVED, Util.now()).stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), BookingMapper::toShortBookingDto, (b1, b2) -> b1));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Booking> getPastUserBookings(Long itemId, Long userId) {
-        itemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException(String.format("Вещь с id=%d не найдена", itemId)));
-        userService.getUser(userId);
+        checkItemExists(itemId);
+        userService.checkUserExists(userId);
         return bookingRepository.findByItemIdAndBookerIdAndEndBefore(itemId, userId, Util.now());
     }
+
+    @Override
+    public ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return getItemsAvailability(List.of(itemId), from, to).get(0);
+    }
+
+    @Override
+    public List<ItemAvailabilityDto> getItemsAvailability(Collection<Long> itemIds,
+                                                          LocalDateTime from,
+                                                          LocalDateTime to) {
+        log.debug("Обработка запроса на просмотр занятости вещей {} c {} по {}", itemIds, from, to);
+        checkAvailabilityWindow(from, to);
+        Map<Long, List<AvailabilitySlotDto>> slots = itemAvailabilityCache.getSlots(itemIds, from, to);
+        List<ItemAvailabilityDto> availability = new ArrayList<>();
+        for (Long itemId : new LinkedHashSet<>(itemIds)) {
+            List<AvailabilitySlotDto> itemSlots = slots.get(itemId);
+            if (itemSlots == null) {
+                throw new ResourceNotFoundException(String.format("Вещь с id=%d не найдена", itemId));
+            }
+            availability.add(BookingMapper.toItemAvailabilityDto(itemId, itemSlots));
+        }
+        return availability;
+    }
+
+    private Map<Long, List<BookingIntervalDto>> findApprovedIntervals(Collection<Booking> bookings) {
+        Set<Long> itemIds = bookings.stream()
+                .filter(b -> b.getStatus() == BookingStatus.WAITING)
+                .map(b -> b.getItem().getId())
+                .collect(Collectors.toSet());
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bookingRepository.findIntervalsByItemIds(itemIds, BookingStatus.APPROVED).stream()
+                .filter(interval -> interval.getStart() != null)
+                .collect(Collectors.groupingBy(BookingIntervalDto::getItemId, Collectors.toCollection(ArrayList::new)));
+    }
+
+    private static boolean overlaps(List<BookingIntervalDto> intervals, Booking booking) {
+        return intervals.stream()
+                .anyMatch(i -> i.getStart().isBefore(booking.getEnd()) && i.getEnd().isAfter(booking.getStart()));
+    }
+
+    private static BookingDecisionResultDto failed(Long bookingId, BookingStatus status, String error) {
+        return new BookingDecisionResultDto(bookingId, status, error);
+    }
+
+    private static BookingState parseState(String state) {
+        try {
+            return BookingState.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new ResourceValidationException(String.format("Unknown state: %s", state));
+        }
+    }
+
+    private static PageCursor checkBookingCursor(PageCursor cursor) {
+        if (cursor.getTimestamp() == null) {
+            throw new ResourceValidationException("Курсор бронирований должен содержать дату начала");
+        }
+        return cursor;
+    }
+
+    private static void checkAvailabilityWindow(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResourceValidationException("Начало периода должно быть раньше его окончания");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_WINDOW) > 0) {
+            throw new ResourceValidationException(String.format("Период не может быть длиннее %d дней",
+                    MAX_AVAILABILITY_WINDOW.toDays()));
+        }
+    }
+
+    private void checkItemExists(Long itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ResourceNotFoundException(String.format("Вещь с id=%d не найдена", itemId));
+        }
+    }
 }
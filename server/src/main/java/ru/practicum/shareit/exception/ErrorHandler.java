@@ -1,7 +1,11 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -11,6 +15,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @Slf4j
 @RestControllerAdvice
 public class ErrorHandler {
+    // ограничение-исключение из миграции V4 для PostgreSQL
+    private static final String BOOKING_OVERLAP_CONSTRAINT = "bookings_approved_no_overlap";
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -33,6 +39,25 @@ public class ErrorHandler {
         return new ErrorResponse("Ресурс уже существует", e.getMessage());
     }
 
+    // 409 только для пересечения подтверждённых бронирований, остальные нарушения ограничений базы - ошибка сервера.
+    // Текст ошибки базы клиенту не передаётся
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handle(final DataIntegrityViolationException e) {
+        if (!isViolationOf(e, BOOKING_OVERLAP_CONSTRAINT)) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(handle((Throwable) e));
+        }
+        log.warn(e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse("Конфликт данных", "Вещь уже забронирована на это время"));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handle(final ObjectOptimisticLockingFailureException e) {
+        log.warn(e.getMessage());
+        return new ErrorResponse("Конфликт данных", "Запись была изменена другим запросом");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handle(final ResourceValidationException e) {
@@ -53,4 +78,14 @@ public class ErrorHandler {
         log.warn(e.getMessage());
         return new ErrorResponse("Ошибка сервера", e.getMessage());
     }
+
+    // Hibernate не извлекает имя ограничения-исключения PostgreSQL, поэтому оно ищется и в сообщении драйвера
+    private static boolean isViolationOf(DataIntegrityViolationException e, String constraint) {
+        if (e.getCause() instanceof ConstraintViolationException
+                && constraint.equalsIgnoreCase(((ConstraintViolationException) e.getCause()).getConstraintName())) {
+            return true;
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(constraint);
+    }
 }
@@ -2,7 +2,11 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
@@ -10,8 +14,11 @@ import ru.practicum.shareit.item.dto.OwnerItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.util.Header;
+import ru.practicum.shareit.util.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,6 +35,13 @@ public class ItemController {
         return ItemMapper.toItemDto(itemService.addItem(item, ownerId));
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> postItems(@RequestBody List<ItemDto> itemDtos, @RequestHeader(Header.USER_ID) Long ownerId) {
+        log.info("Получен запрос на добавление {} вещей для пользователя с id={}", itemDtos.size(), ownerId);
+        List<Item> items = itemDtos.stream().map(ItemMapper::toItem).collect(Collectors.toList());
+        return itemService.addItems(items, ownerId).stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
+    }
+
     @GetMapping("/{itemId}")
     public OwnerItemDto getItem(@PathVariable Long itemId, @RequestHeader(Header.USER_ID) Long userId) {
         log.info("Получен запрос на просмотр вещи c id={}", itemId);
@@ -35,11 +49,21 @@ public class ItemController {
     }
 
     @GetMapping
-    public Collection<OwnerItemDto> getAllItems(@RequestHeader(Header.USER_ID) Long ownerId,
-                                                @RequestParam Integer from,
-                                                @RequestParam Integer size) {
+    public ResponseEntity<List<OwnerItemDto>> getAllItems(@RequestHeader(Header.USER_ID) Long ownerId,
+                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam Integer size,
+                                                          @RequestParam(required = false) String cursor,
+                                                          WebRequest request) {
         log.info("Получен запрос на просмотр всех вещей пользователя id={} c {} размер {}", ownerId, from, size);
-        return itemService.getAllItems(ownerId, from, size);
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        // при совпадении If-None-Match отправляется 304, и вещи с бронированиями и комментариями не загружаются
+        if (request.checkNotModified(itemService.getAllItemsETag(ownerId))) {
+            return null;
+        }
+        List<OwnerItemDto> items = after == null
+                ? List.copyOf(itemService.getAllItems(ownerId, from, size))
+                : itemService.getAllItemsAfter(ownerId, after, size);
+        return PageCursor.toResponse(items, size, i -> PageCursor.ofId(i.getId()));
     }
 
     @PatchMapping("/{itemId}")
@@ -65,6 +89,30 @@ public class ItemController {
         return itemService.searchItems(text, from, size).stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
     }
 
+    @GetMapping("/availability")
+    public List<ItemAvailabilityDto> getItemsAvailability(@RequestParam List<Long> itemIds,
+                                                          @RequestHeader(Header.USER_ID) Long userId,
+                                                          @RequestParam
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                          LocalDateTime from,
+                                                          @RequestParam
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                          LocalDateTime to) {
+        log.info("Получен запрос на просмотр занятости вещей {} c {} по {}", itemIds, from, to);
+        return itemService.getItemsAvailability(itemIds, userId, from, to);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(@PathVariable Long itemId,
+                                                   @RequestHeader(Header.USER_ID) Long userId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime to) {
+        log.info("Получен запрос на просмотр занятости вещи c id={} c {} по {}", itemId, from, to);
+        return itemService.getItemAvailability(itemId, userId, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto postComment(@RequestBody CommentDto commentDto,
                                   @PathVariable Long itemId,
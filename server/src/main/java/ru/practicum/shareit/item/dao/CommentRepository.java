@@ -1,10 +1,22 @@
 package ru.practicum.shareit.item.dao;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.util.ListVersion;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    // условие на собственный столбец комментария, чтобы использовался индекс comments_item_id_idx;
+    // вещь и автор загружаются тем же запросом, поэтому отображение комментариев не обращается к базе
+    @Query(" SELECT c FROM Comment c JOIN FETCH c.item JOIN FETCH c.author " +
+            "WHERE c.item.id = ?1 ")
     List<Comment> findAllByItemId(Long itemId);
+
+    // комментарии не изменяются, поэтому вместо времени изменения учитывается время создания
+    @Query(" SELECT new ru.practicum.shareit.util.ListVersion(COUNT(c), MAX(c.created), MAX(u.updated)) " +
+            "FROM Comment c JOIN c.item i JOIN c.author u " +
+            "WHERE i.ownerId = ?1 ")
+    ListVersion getVersionByItemOwnerId(Long ownerId);
 }
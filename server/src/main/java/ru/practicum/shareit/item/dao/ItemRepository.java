@@ -3,19 +3,65 @@ package ru.practicum.shareit.item.dao;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDetailsDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.ListVersion;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerIdOrderByIdAsc(Long ownerId, Pageable page);
 
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long itemId, Pageable page);
+
+    // вещь с последним и следующим бронированием за один запрос; бронирования видны только владельцу,
+    // для остальных пользователей их поля равны null. При совпадении границ строк может быть несколько
+    @Query(" SELECT new ru.practicum.shareit.item.dto.ItemDetailsDto(i.id, i.name, i.description, i.available, " +
+            "lb.id, lb.booker.id, lb.start, lb.end, nb.id, nb.booker.id, nb.start, nb.end) " +
+            "FROM Item i " +
+            "LEFT JOIN Booking lb ON lb.item.id = i.id AND i.ownerId = ?2 AND lb.status = ?3 AND lb.start < ?4 " +
+            "AND lb.end = (SELECT MAX(l.end) FROM Booking l " +
+            "WHERE l.item.id = i.id AND l.status = ?3 AND l.start < ?4) " +
+            "LEFT JOIN Booking nb ON nb.item.id = i.id AND i.ownerId = ?2 AND nb.status = ?3 AND nb.start > ?4 " +
+            "AND nb.start = (SELECT MIN(n.start) FROM Booking n " +
+            "WHERE n.item.id = i.id AND n.status = ?3 AND n.start > ?4) " +
+            "WHERE i.id = ?1 ")
+    List<ItemDetailsDto> findDetailsById(Long itemId, Long userId, BookingStatus status, LocalDateTime now);
+
     @Query(" SELECT i FROM Item i " +
             "WHERE i.available = true " +
             "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', ?1, '%')) " +
             "OR LOWER(i.description) LIKE LOWER(CONCAT('%', ?1, '%'))) ")
     List<Item> search(String text, Pageable page);
 
+    @Query(value = " SELECT * FROM items i " +
+            "WHERE i.is_available = true " +
+            "AND (i.name ILIKE CONCAT('%', ?1, '%') " +
+            "OR i.description ILIKE CONCAT('%', ?1, '%')) ",
+            nativeQuery = true)
+    List<Item> searchByTrigram(String text, Pageable page);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<Item> streamAllByAvailableTrue();
+
     List<Item> findAllByRequestIdIn(Set<Long> requestIds);
+
+    @Query(" SELECT new ru.practicum.shareit.util.ListVersion(COUNT(i), MAX(i.updated)) " +
+            "FROM Item i " +
+            "WHERE i.ownerId = ?1 ")
+    ListVersion getVersionByOwnerId(Long ownerId);
+
+    // вещи, созданные в ответ на запросы пользователя
+    @Query(" SELECT new ru.practicum.shareit.util.ListVersion(COUNT(i), MAX(i.updated)) " +
+            "FROM Item i " +
+            "WHERE i.requestId IN (SELECT r.id FROM ItemRequest r WHERE r.requester.id = ?1) ")
+    ListVersion getVersionByRequesterId(Long requesterId);
 }
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// строка запроса ItemRepository.findDetailsById: поля бронирований равны null, если бронирования нет
+@Data
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ItemDetailsDto {
+    private Long id;
+
+    private String name;
+
+    private String description;
+
+    private Boolean available;
+
+    private Long lastBookingId;
+
+    private Long lastBookerId;
+
+    private LocalDateTime lastBookingStart;
+
+    private LocalDateTime lastBookingEnd;
+
+    private Long nextBookingId;
+
+    private Long nextBookerId;
+
+    private LocalDateTime nextBookingStart;
+
+    private LocalDateTime nextBookingEnd;
+}
@@ -34,6 +34,22 @@ public class ItemMapper {
                 .build();
     }
 
+    public static OwnerItemDto toOwnerItemDto(ItemDetailsDto item, List<CommentDto> comments) {
+        ShortBookingDto lastBooking = item.getLastBookingId() == null ? null : new ShortBookingDto(
+                item.getLastBookingId(), item.getLastBookerId(), item.getLastBookingStart(), item.getLastBookingEnd());
+        ShortBookingDto nextBooking = item.getNextBookingId() == null ? null : new ShortBookingDto(
+                item.getNextBookingId(), item.getNextBookerId(), item.getNextBookingStart(), item.getNextBookingEnd());
+        return OwnerItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
+                .comments(comments)
+                .build();
+    }
+
     public static Item toItem(ItemDto itemDto) {
         return Item.builder()
                 .id(itemDto.getId())
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Value;
+import ru.practicum.shareit.item.model.Item;
+
+@Value
+public class ItemSavedEvent {
+    Item item;
+}
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Builder(toBuilder = true)
 @AllArgsConstructor
@@ -13,7 +15,9 @@ import javax.persistence.*;
 @Table(name = "items")
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // идентификаторы выделяются из последовательности блоками по 50, поэтому вставки группируются в пакеты
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -30,4 +34,8 @@ public class Item {
 
     @Column(name = "request_id")
     private Long requestId;
+
+    @UpdateTimestamp
+    @Column(name = "updated")
+    private LocalDateTime updated;
 }
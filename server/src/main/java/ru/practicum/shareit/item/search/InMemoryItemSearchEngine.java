@@ -0,0 +1,246 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Триграммный инвертированный индекс по названию и описанию доступных вещей.
+ * Индекс заполняется потоково при старте приложения и далее поддерживается событиями
+ * сохранения и удаления вещей, поэтому поиск не обращается к базе данных.
+ * Пока индекс не прогрет, запросы выполняются через базу данных.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Item> items = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    // вещи, изменённые во время прогрева: их состояние из событий новее, чем в читаемом снимке таблицы
+    private final Set<Long> changedDuringWarmUp = new HashSet<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        log.debug("Построение поискового индекса вещей");
+        int count = 0;
+        try (Stream<Item> stream = itemRepository.streamAllByAvailableTrue()) {
+            for (Iterator<Item> it = stream.iterator(); it.hasNext(); ) {
+                Item item = it.next();
+                entityManager.detach(item);
+                putIfUnchanged(item);
+                count++;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            changedDuringWarmUp.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Поисковый индекс построен, проиндексировано вещей: {}", count);
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable page) {
+        if (!ready) {
+            return itemRepository.search(text, page);
+        }
+        String query = text.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            long[] candidates = query.length() < GRAM_LENGTH ? allIds() : candidates(query);
+            List<Item> result = new ArrayList<>(page.getPageSize());
+            long toSkip = page.getOffset();
+            for (long id : candidates) {
+                if (result.size() == page.getPageSize()) {
+                    break;
+                }
+                Item item = items.get(id);
+                if (!matches(item, query)) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
+                result.add(item.toBuilder().build());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedDuringWarmUp.add(item.getId());
+            }
+            removeInternal(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                putInternal(item.toBuilder().build());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedDuringWarmUp.add(itemId);
+            }
+            removeInternal(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeByOwner(Long ownerId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ownerItemIds = new ArrayList<>();
+            for (Item item : items.values()) {
+                if (item.getOwnerId().equals(ownerId)) {
+                    ownerItemIds.add(item.getId());
+                }
+            }
+            for (Long itemId : ownerItemIds) {
+                if (!ready) {
+                    changedDuringWarmUp.add(itemId);
+                }
+                removeInternal(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putIfUnchanged(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (!changedDuringWarmUp.contains(item.getId())) {
+                putInternal(item.toBuilder().build());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putInternal(Item item) {
+        items.put(item.getId(), item);
+        for (String gram : grams(item)) {
+            postings.computeIfAbsent(gram, g -> new PostingList()).add(item.getId());
+        }
+    }
+
+    private void removeInternal(Long itemId) {
+        Item old = items.remove(itemId);
+        if (old == null) {
+            return;
+        }
+        for (String gram : grams(old)) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            list.remove(itemId);
+            if (list.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // id, в которых встречаются все триграммы запроса, по возрастанию
+    private long[] candidates(String query) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String gram : grams(query, new HashSet<>())) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList smallest = lists.get(0);
+        long[] result = new long[smallest.size()];
+        int count = 0;
+        for (int i = 0; i < smallest.size(); i++) {
+            long id = smallest.get(i);
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            if (inAll) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private long[] allIds() {
+        long[] ids = new long[items.size()];
+        int i = 0;
+        for (Long id : items.keySet()) {
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    // та же семантика, что у LOWER(...) LIKE LOWER('%text%') в ItemRepository.search
+    private static boolean matches(Item item, String query) {
+        return contains(item.getName(), query) || contains(item.getDescription(), query);
+    }
+
+    private static boolean contains(String field, String query) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(query);
+    }
+
+    private static Set<String> grams(Item item) {
+        Set<String> grams = new HashSet<>();
+        if (item.getName() != null) {
+            grams(item.getName().toLowerCase(Locale.ROOT), grams);
+        }
+        if (item.getDescription() != null) {
+            grams(item.getDescription().toLowerCase(Locale.ROOT), grams);
+        }
+        return grams;
+    }
+
+    private static Set<String> grams(String text, Set<String> grams) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
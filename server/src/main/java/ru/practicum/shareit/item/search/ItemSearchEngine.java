@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по подстроке в названии или описании.
+ * Реализация выбирается свойством shareit.search.engine.
+ */
+public interface ItemSearchEngine {
+
+    List<Item> search(String text, Pageable page);
+
+    // вызывается после коммита транзакции, в которой вещь была создана или изменена
+    default void index(Item item) {
+    }
+
+    // вызывается после коммита транзакции, в которой вещь была удалена
+    default void remove(Long itemId) {
+    }
+
+    // вызывается после удаления пользователя: его вещи удаляются каскадно, без отдельных событий
+    default void removeByOwner(Long ownerId) {
+    }
+}
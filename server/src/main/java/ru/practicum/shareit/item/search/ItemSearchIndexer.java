@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.event.ItemDeletedEvent;
+import ru.practicum.shareit.item.event.ItemSavedEvent;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemSearchIndexer {
+
+    private final ItemSearchEngine itemSearchEngine;
+
+    @TransactionalEventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        log.debug("Обновление поискового индекса для вещи id={}", event.getItem().getId());
+        itemSearchEngine.index(event.getItem());
+    }
+
+    @TransactionalEventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        log.debug("Удаление вещи id={} из поискового индекса", event.getItemId());
+        itemSearchEngine.remove(event.getItemId());
+    }
+
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        log.debug("Удаление вещей пользователя id={} из поискового индекса", event.getUserId());
+        itemSearchEngine.removeByOwner(event.getUserId());
+    }
+}
@@ -1,18 +1,29 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.OwnerItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 public interface ItemService {
     Item addItem(Item item, Long ownerId);
 
+    List<Item> addItems(List<Item> items, Long ownerId);
+
     OwnerItemDto getItem(Long itemId, Long userId);
 
     Collection<OwnerItemDto> getAllItems(Long ownerId, Integer from, Integer size);
 
+    List<OwnerItemDto> getAllItemsAfter(Long ownerId, PageCursor cursor, Integer size);
+
+    // слабый ETag списка вещей владельца вместе с их бронированиями и комментариями
+    String getAllItemsETag(Long ownerId);
+
     Item updateItem(Item item, Long itemId, Long ownerId);
 
     void deleteItem(Long itemId, Long ownerId);
@@ -20,4 +31,9 @@ public interface ItemService {
     Collection<Item> searchItems(String text, Integer from, Integer size);
 
     CommentDto addComment(CommentDto commentDto, Long itemId, Long userId);
+
+    ItemAvailabilityDto getItemAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemAvailabilityDto> getItemsAvailability(List<Long> itemIds, Long userId, LocalDateTime from,
+                                                   LocalDateTime to);
 }
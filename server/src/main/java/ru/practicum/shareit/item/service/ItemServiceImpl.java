@@ -2,9 +2,13 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.booking.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.PermissionDeniedException;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
@@ -13,16 +17,24 @@ import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDetailsDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.OwnerItemDto;
+import ru.practicum.shareit.item.event.ItemDeletedEvent;
+import ru.practicum.shareit.item.event.ItemSavedEvent;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.PageCursor;
 import ru.practicum.shareit.util.Util;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,56 +48,85 @@ public class ItemServiceImpl implements ItemService {
     private final UserService userService;
     private final BookingService bookingService;
 
+    private final ItemSearchEngine itemSearchEngine;
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional
     public Item addItem(Item item, Long ownerId) {
         log.debug("Обработка запроса на создание вещи");
-        userService.getUser(ownerId);
+        userService.checkUserExists(ownerId);
         Item itemWithOwner = item.toBuilder().ownerId(ownerId).build();
-        return itemRepository.save(itemWithOwner);
+        Item savedItem = itemRepository.save(itemWithOwner);
+        eventPublisher.publishEvent(new ItemSavedEvent(savedItem));
+        return savedItem;
+    }
+
+    @Override
+    @Transactional
+    public List<Item> addItems(List<Item> items, Long ownerId) {
+        log.debug("Обработка запроса на создание {} вещей пользователя id={}", items.size(), ownerId);
+        userService.checkUserExists(ownerId);
+        List<Item> itemsWithOwner = items.stream()
+                .map(item -> item.toBuilder().ownerId(ownerId).build())
+                .collect(Collectors.toList());
+        List<Item> savedItems = itemRepository.saveAll(itemsWithOwner);
+        savedItems.forEach(item -> eventPublisher.publishEvent(new ItemSavedEvent(item)));
+        return savedItems;
     }
 
     @Override
     @Transactional(readOnly = true)
     public OwnerItemDto getItem(Long itemId, Long userId) {
         log.debug("Обработка запроса на получение вещи c id={}", itemId);
-        Item item = itemRepository.findById(itemId)
+        ItemDetailsDto item = itemRepository.findDetailsById(itemId, userId, BookingStatus.APPROVED, Util.now())
+                .stream()
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Вещь с id=%d не найдена", itemId)));
-        User user = userService.getUser(userId);
+        userService.checkUserExists(userId);
 
-        List<CommentDto> comments = commentRepository.findAllByItemId(item.getId()).stream()
+        List<CommentDto> comments = commentRepository.findAllByItemId(itemId).stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
 
-        if (!item.getOwnerId().equals(user.getId())) {
-            return ItemMapper.toOwnerItemDto(item, null, null, comments);
-        }
-
-        return ItemMapper.toOwnerItemDto(item,
-                bookingService.getLastBooking(itemId),
-                bookingService.getNextBooking(itemId),
-                comments);
+        return ItemMapper.toOwnerItemDto(item, comments);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Collection<OwnerItemDto> getAllItems(Long ownerId, Integer from, Integer size) {
         log.debug("Обработка запроса на получение всех вещей пользователя  id={}", ownerId);
-        userService.getUser(ownerId);
+        userService.checkUserExists(ownerId);
         Pageable page = Util.page(from, size);
-        return itemRepository.findAllByOwnerIdOrderByIdAsc(ownerId, page).stream()
-                .map(i -> ItemMapper.toOwnerItemDto(i,
-                        bookingService.getLastBooking(i.getId()),
-                        bookingService.getNextBooking(i.getId()),
-                        Collections.emptyList()))
-                .collect(Collectors.toList());
+        List<Item> items = itemRepository.findAllByOwnerIdOrderByIdAsc(ownerId, page);
+        return toOwnerItemDtos(items);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getAllItemsETag(Long ownerId) {
+        log.debug("Вычисление ETag вещей пользователя id={}", ownerId);
+        userService.checkUserExists(ownerId);
+        return ETags.weak(itemRepository.getVersionByOwnerId(ownerId),
+                commentRepository.getVersionByItemOwnerId(ownerId),
+                bookingService.getOwnerBookingsVersion(ownerId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OwnerItemDto> getAllItemsAfter(Long ownerId, PageCursor cursor, Integer size) {
+        log.debug("Обработка запроса на получение вещей пользователя id={} после вещи id={}", ownerId, cursor.getId());
+        userService.checkUserExists(ownerId);
+        List<Item> items = itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(ownerId, cursor.getId(),
+                Util.page(0, size));
+        return toOwnerItemDtos(items);
     }
 
     @Override
     @Transactional
     public Item updateItem(Item item, Long itemId, Long ownerId) {
         log.debug("Обработка запроса на обновление вещи c id={}", item.getId());
-        userService.getUser(ownerId);
+        userService.checkUserExists(ownerId);
         Item itemInDb = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Вещь с id=%d не найдена", itemId)));
 
@@ -98,18 +139,21 @@ public class ItemServiceImpl implements ItemService {
                 .description(Util.isBlank(item.getDescription()) ? itemInDb.getDescription() : item.getDescription())
                 .available(item.getAvailable() == null ? itemInDb.getAvailable() : item.getAvailable())
                 .build();
-        return itemRepository.save(itemForUpdate);
+        Item savedItem = itemRepository.save(itemForUpdate);
+        eventPublisher.publishEvent(new ItemSavedEvent(savedItem));
+        return savedItem;
     }
 
     @Override
     @Transactional
     public void deleteItem(Long itemId, Long ownerId) {
         log.debug("Обработка запроса на удаление вещи c id={}", itemId);
-        userService.getUser(ownerId);
+        userService.checkUserExists(ownerId);
         Item itemInDb = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Вещь с id=%d не найдена", itemId)));
         if (itemInDb.getOwnerId().equals(ownerId)) {
             itemRepository.deleteById(itemId);
+            eventPublisher.publishEvent(new ItemDeletedEvent(itemId));
         }
     }
 
@@ -121,7 +165,7 @@ public class ItemServiceImpl implements ItemService {
             return Collections.emptyList();
         }
         Pageable page = Util.page(from, size);
-        return itemRepository.search(text, page);
+        return itemSearchEngine.search(text, page);
     }
 
     @Override
@@ -139,4 +183,36 @@ public class ItemServiceImpl implements ItemService {
 
         return CommentMapper.toCommentDto(commentRepository.save(CommentMapper.toComment(commentDto, item, user)));
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getItemAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to) {
+        log.debug("Обработка запроса на просмотр занятости вещи c id={}", itemId);
+        userService.checkUserExists(userId);
+        return bookingService.getItemAvailability(itemId, from, to);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemAvailabilityDto> getItemsAvailability(List<Long> itemIds, Long userId, LocalDateTime from,
+                                                          LocalDateTime to) {
+        log.debug("Обработка запроса на просмотр занятости вещей {}", itemIds);
+        userService.checkUserExists(userId);
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return bookingService.getItemsAvailability(itemIds, from, to);
+    }
+
+    private List<OwnerItemDto> toOwnerItemDtos(List<Item> items) {
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        Map<Long, ShortBookingDto> lastBookings = bookingService.getLastBookings(itemIds);
+        Map<Long, ShortBookingDto> nextBookings = bookingService.getNextBookings(itemIds);
+        return items.stream()
+                .map(i -> ItemMapper.toOwnerItemDto(i,
+                        lastBookings.get(i.getId()),
+                        nextBookings.get(i.getId()),
+                        Collections.emptyList()))
+                .collect(Collectors.toList());
+    }
 }
@@ -2,12 +2,15 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.util.Header;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.util.List;
 
@@ -26,17 +29,25 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDtoWithItems> getRequestsByUser(@RequestHeader(Header.USER_ID) Long userId) {
+    public List<ItemRequestDtoWithItems> getRequestsByUser(@RequestHeader(Header.USER_ID) Long userId,
+                                                           WebRequest request) {
         log.info("Получен запрос на просмотр запросов от пользователя с id={}", userId);
+        if (request.checkNotModified(itemRequestService.getRequestsByUserIdETag(userId))) {
+            return null;
+        }
         return itemRequestService.getRequestsByUserId(userId);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDtoWithItems> getAllRequests(@RequestParam Integer from,
-                                                        @RequestParam Integer size,
-                                                        @RequestHeader(Header.USER_ID) Long userId) {
+    public ResponseEntity<List<ItemRequestDtoWithItems>> getAllRequests(@RequestParam(defaultValue = "0") Integer from,
+                                                                        @RequestParam Integer size,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestHeader(Header.USER_ID) Long userId) {
         log.info("Просмотр запросов от {} размером {} от пользователя с id={}", from, size, userId);
-        return itemRequestService.getAllRequests(from, size, userId);
+        List<ItemRequestDtoWithItems> requests = cursor == null
+                ? itemRequestService.getAllRequests(from, size, userId)
+                : itemRequestService.getAllRequestsAfter(PageCursor.decode(cursor), size, userId);
+        return PageCursor.toResponse(requests, size, r -> PageCursor.of(r.getCreated(), r.getId()));
     }
 
     @GetMapping("/{requestId}")
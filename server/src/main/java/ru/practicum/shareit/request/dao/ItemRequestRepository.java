@@ -1,13 +1,28 @@
 package ru.practicum.shareit.request.dao;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.util.ListVersion;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Long requesterId);
 
-    List<ItemRequest> findAllByRequesterIdNotOrderByCreatedDesc(Long requesterId, Pageable page);
+    List<ItemRequest> findAllByRequesterIdNotOrderByCreatedDescIdDesc(Long requesterId, Pageable page);
+
+    @Query(" SELECT r FROM ItemRequest r " +
+            "WHERE r.requester.id <> ?1 " +
+            "AND (r.created < ?2 OR (r.created = ?2 AND r.id < ?3)) " +
+            "ORDER BY r.created DESC, r.id DESC ")
+    List<ItemRequest> findAllByRequesterIdNotBefore(Long requesterId, LocalDateTime created, Long requestId,
+                                                    Pageable page);
+
+    @Query(" SELECT new ru.practicum.shareit.util.ListVersion(COUNT(r), MAX(r.updated)) " +
+            "FROM ItemRequest r " +
+            "WHERE r.requester.id = ?1 ")
+    ListVersion getVersionByRequesterId(Long requesterId);
 }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request.model;
 
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -32,4 +33,8 @@ public class ItemRequest {
     @CreationTimestamp
     @Column(name = "created")
     private LocalDateTime created;
+
+    @UpdateTimestamp
+    @Column(name = "updated")
+    private LocalDateTime updated;
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.util.List;
 
@@ -12,7 +13,12 @@ public interface ItemRequestService {
 
     List<ItemRequestDtoWithItems> getRequestsByUserId(Long userId);
 
+    // слабый ETag запросов пользователя вместе с вещами, созданными в ответ на них
+    String getRequestsByUserIdETag(Long userId);
+
     List<ItemRequestDtoWithItems> getAllRequests(Integer from, Integer size, Long userId);
 
+    List<ItemRequestDtoWithItems> getAllRequestsAfter(PageCursor cursor, Integer size, Long userId);
+
     ItemRequestDtoWithItems getRequest(Long requestId, Long userId);
 }
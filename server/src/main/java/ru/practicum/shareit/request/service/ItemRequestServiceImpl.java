@@ -6,6 +6,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
+import ru.practicum.shareit.exception.ResourceValidationException;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
@@ -16,6 +17,8 @@ import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.PageCursor;
 import ru.practicum.shareit.util.Util;
 
 import java.util.List;
@@ -45,43 +48,48 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     public List<ItemRequestDtoWithItems> getAllRequests(Integer from, Integer size, Long userId) {
         log.debug("Обработка получения запросов кроме запросов пользователя id={}", userId);
-        userService.getUser(userId);
+        userService.checkUserExists(userId);
         Pageable page = Util.page(from, size);
-        List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterIdNotOrderByCreatedDesc(userId, page);
-        Set<Long> requestIds = itemRequestList.stream().map(ItemRequest::getId).collect(Collectors.toSet());
-        Map<Long, List<Item>> requestsWithItems = itemRepository.findAllByRequestIdIn(requestIds).stream()
-                .collect(Collectors.groupingBy(Item::getRequestId));
+        List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterIdNotOrderByCreatedDescIdDesc(userId,
+                page);
+        return withItems(itemRequestList);
+    }
 
-        return itemRequestList.stream()
-                .map(ir -> ItemRequestMapper.toItemRequestDtoWithItems(ir,
-                        requestsWithItems.getOrDefault(ir.getId(), List.of()).stream()
-                                .map(ItemMapper::toItemDtoForRequest)
-                                .collect(Collectors.toList())))
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDtoWithItems> getAllRequestsAfter(PageCursor cursor, Integer size, Long userId) {
+        log.debug("Обработка получения запросов кроме запросов пользователя id={} после {}", userId, cursor);
+        userService.checkUserExists(userId);
+        if (cursor.getTimestamp() == null) {
+            throw new ResourceValidationException("Курсор запросов должен содержать дату создания");
+        }
+        List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterIdNotBefore(userId,
+                cursor.getTimestamp(), cursor.getId(), Util.page(0, size));
+        return withItems(itemRequestList);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ItemRequestDtoWithItems> getRequestsByUserId(Long userId) {
         log.debug("Получение всех запросов с вещами для пользователя id={}", userId);
-        userService.getUser(userId);
+        userService.checkUserExists(userId);
         List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterIdOrderByCreatedDesc(userId);
-        Set<Long> requestIds = itemRequestList.stream().map(ItemRequest::getId).collect(Collectors.toSet());
-        Map<Long, List<Item>> requestsWithItems = itemRepository.findAllByRequestIdIn(requestIds).stream()
-                .collect(Collectors.groupingBy(Item::getRequestId));
+        return withItems(itemRequestList);
+    }
 
-        return itemRequestList.stream()
-                .map(ir -> ItemRequestMapper.toItemRequestDtoWithItems(ir,
-                        requestsWithItems.getOrDefault(ir.getId(), List.of()).stream()
-                                .map(ItemMapper::toItemDtoForRequest)
-                                .collect(Collectors.toList())))
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public String getRequestsByUserIdETag(Long userId) {
+        log.debug("Вычисление ETag запросов пользователя id={}", userId);
+        userService.checkUserExists(userId);
+        return ETags.weak(requestRepository.getVersionByRequesterId(userId),
+                itemRepository.getVersionByRequesterId(userId));
     }
 
     @Override
     public ItemRequestDtoWithItems getRequest(Long requestId, Long userId) {
         log.debug("Получение запроса с id={}", requestId);
-        userService.getUser(userId);
+        userService.checkUserExists(userId);
         ItemRequest request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Запроса с id=%d нет в базе", requestId)));
         List<Item> itemList = itemRepository.findAllByRequestIdIn(Set.of(requestId));
@@ -90,5 +98,18 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 itemList.stream().map(ItemMapper::toItemDtoForRequest).collect(Collectors.toList()));
     }
 
+    private List<ItemRequestDtoWithItems> withItems(List<ItemRequest> itemRequestList) {
+        Set<Long> requestIds = itemRequestList.stream().map(ItemRequest::getId).collect(Collectors.toSet());
+        Map<Long, List<Item>> requestsWithItems = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(Item::getRequestId));
+
+        return itemRequestList.stream()
+                .map(ir -> ItemRequestMapper.toItemRequestDtoWithItems(ir,
+                        requestsWithItems.getOrDefault(ir.getId(), List.of()).stream()
+                                .map(ItemMapper::toItemDtoForRequest)
+                                .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+
 
 }
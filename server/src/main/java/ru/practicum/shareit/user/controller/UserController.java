@@ -9,6 +9,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,6 +27,13 @@ public class UserController {
         return UserMapper.toUserDto(userService.addUser(user));
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> postUsers(@RequestBody List<UserDto> userDtos) {
+        log.info("Получен запрос на добавление {} пользователей", userDtos.size());
+        List<User> users = userDtos.stream().map(UserMapper::toUser).collect(Collectors.toList());
+        return userService.addUsers(users).stream().map(UserMapper::toUserDto).collect(Collectors.toList());
+    }
+
     @GetMapping("/{userId}")
     public UserDto getUser(@PathVariable Long userId) {
         log.info("Получен запрос на просмотр пользователя c id={}", userId);
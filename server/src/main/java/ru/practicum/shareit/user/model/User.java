@@ -2,8 +2,10 @@ package ru.practicum.shareit.user.model;
 
 
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Builder(toBuilder = true)
 @AllArgsConstructor
@@ -14,7 +16,9 @@ import javax.persistence.*;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // идентификаторы выделяются из последовательности блоками по 50, поэтому вставки группируются в пакеты
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -22,4 +26,8 @@ public class User {
 
     @Column(nullable = false, unique = true)
     private String email;
+
+    @UpdateTimestamp
+    @Column(name = "updated")
+    private LocalDateTime updated;
 }
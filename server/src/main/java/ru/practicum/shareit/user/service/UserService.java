@@ -3,11 +3,15 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface UserService {
     // CRUD
     User addUser(User user);
 
+    // пакетное создание в одной транзакции
+    List<User> addUsers(List<User> users);
+
     User getUser(Long userId);
 
     Collection<User> getAllUsers();
@@ -15,4 +19,7 @@ public interface UserService {
     User updateUser(User user, Long userId);
 
     void deleteUser(Long userId);
+
+    // проверка существования без загрузки сущности, если пользователь уже в кэше - без обращения к базе
+    void checkUserExists(Long userId);
 }
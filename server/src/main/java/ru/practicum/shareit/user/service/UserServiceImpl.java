@@ -2,14 +2,22 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
 import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.util.Util;
 
 import java.util.Collection;
+import java.util.List;
 
 @Service
 @Slf4j
@@ -17,6 +25,8 @@ import java.util.Collection;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
 
     @Override
     @Transactional
@@ -25,8 +35,16 @@ public class UserServiceImpl implements UserService {
         return userRepository.save(user);
     }
 
+    @Override
+    @Transactional
+    public List<User> addUsers(List<User> users) {
+        log.debug("Обработка запроса на создание {} пользователей", users.size());
+        return userRepository.saveAll(users);
+    }
+
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.USERS)
     public User getUser(Long id) {
         log.debug("Получение пользователя по id={}", id);
         return userRepository.findById(id)
@@ -42,6 +60,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public User updateUser(User user, Long id) {
         log.debug("Обработка запроса на обновление пользователя c id={}", user.getId());
         User userInDb = getUser(id);
@@ -54,10 +73,24 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public void deleteUser(Long id) {
         log.debug("Обработка запроса на удаление пользователя с id={}", id);
         getUser(id);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void checkUserExists(Long id) {
+        Cache users = cacheManager.getCache(CacheConfig.USERS);
+        if (users != null && users.get(id) != null) {
+            return;
+        }
+        if (!userRepository.existsById(id)) {
+            throw new ResourceNotFoundException(String.format("Пользователь с id=%d не найден", id));
+        }
     }
 
 }
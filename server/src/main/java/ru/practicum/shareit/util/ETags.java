@@ -0,0 +1,16 @@
+package ru.practicum.shareit.util;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+@UtilityClass
+public class ETags {
+    // слабый ETag: равенство сводок означает равные по смыслу, а не побайтно одинаковые ответы
+    public static String weak(Object... versions) {
+        byte[] bytes = Arrays.deepToString(versions).getBytes(StandardCharsets.UTF_8);
+        return "W/\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+    }
+}
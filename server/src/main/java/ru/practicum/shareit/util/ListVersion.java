@@ -0,0 +1,24 @@
+package ru.practicum.shareit.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Число строк списка и время последнего изменения среди них. Удаление строки уменьшает число,
+ * а добавление или изменение сдвигает время, поэтому пара меняется вместе с содержимым списка.
+ * Для неизменяемых строк, например комментариев, вторым значением служит время создания,
+ * а {@code relatedUpdated} учитывает изменения связанных строк, попадающих в DTO.
+ */
+@Value
+@AllArgsConstructor
+public class ListVersion {
+    Long count;
+    LocalDateTime updated;
+    LocalDateTime relatedUpdated;
+
+    public ListVersion(Long count, LocalDateTime updated) {
+        this(count, updated, null);
+    }
+}
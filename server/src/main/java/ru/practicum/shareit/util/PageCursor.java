@@ -0,0 +1,61 @@
+package ru.practicum.shareit.util;
+
+import lombok.Value;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.ResourceValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Позиция последнего элемента страницы для постраничного вывода по ключу.
+ * Клиент получает курсор в заголовке X-Next-Cursor и передаёт его в параметре cursor,
+ * следующая страница начинается сразу после этого элемента без OFFSET.
+ */
+@Value
+public class PageCursor {
+    private static final String SEPARATOR = "|";
+
+    // null, если список упорядочен только по id
+    LocalDateTime timestamp;
+
+    Long id;
+
+    public static PageCursor of(LocalDateTime timestamp, Long id) {
+        return new PageCursor(timestamp, id);
+    }
+
+    public static PageCursor ofId(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    public String encode() {
+        String value = (timestamp == null ? "" : timestamp.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            String timestamp = value.substring(0, separator);
+            return new PageCursor(timestamp.isEmpty() ? null : LocalDateTime.parse(timestamp),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ResourceValidationException(String.format("Некорректный курсор: %s", cursor));
+        }
+    }
+
+    // курсор на следующую страницу отдаётся, только если текущая заполнена целиком
+    public static <T> ResponseEntity<List<T>> toResponse(List<T> content, int size, Function<T, PageCursor> cursorOf) {
+        if (content.isEmpty() || content.size() < size) {
+            return ResponseEntity.ok(content);
+        }
+        return ResponseEntity.ok()
+                .header(Header.NEXT_CURSOR, cursorOf.apply(content.get(content.size() - 1)).encode())
+                .body(content);
+    }
+}
@@ -1,9 +1,3 @@
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS items CASCADE;
-DROP TABLE IF EXISTS bookings CASCADE;
-DROP TABLE IF EXISTS comments CASCADE;
-DROP TABLE IF EXISTS item_requests CASCADE;
-
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR (255) NOT NULL,
@@ -58,4 +52,4 @@ CREATE TABLE IF NOT EXISTS item_requests (
 
     PRIMARY KEY (id),
     FOREIGN KEY (requester_id) REFERENCES users (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
@@ -0,0 +1,24 @@
+-- BookingRepository: last/next booking of an item
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS bookings_item_status_end_idx ON bookings (item_id, status, end_date);
+
+-- BookingRepository: booker listings by state, sorted by start
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx ON bookings (booker_id, status, start_date DESC);
+
+-- BookingRepository: owner listings join items by owner, then bookings by item
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC);
+
+-- BookingRepository: finished bookings of an item by a booker (comment permission)
+CREATE INDEX IF NOT EXISTS bookings_item_booker_end_idx ON bookings (item_id, booker_id, end_date);
+
+-- ItemRepository
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS items_request_id_idx ON items (request_id);
+
+-- CommentRepository
+CREATE INDEX IF NOT EXISTS comments_item_id_idx ON comments (item_id);
+
+-- ItemRequestRepository
+CREATE INDEX IF NOT EXISTS item_requests_requester_created_idx ON item_requests (requester_id, created DESC);
+CREATE INDEX IF NOT EXISTS item_requests_created_idx ON item_requests (created DESC);
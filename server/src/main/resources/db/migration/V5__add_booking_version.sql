@@ -0,0 +1,2 @@
+-- Booking: version column for optimistic locking
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
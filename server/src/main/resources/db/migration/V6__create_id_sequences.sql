@@ -0,0 +1,3 @@
+-- Users and items: pooled id sequences, increment must match allocationSize of the entities
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
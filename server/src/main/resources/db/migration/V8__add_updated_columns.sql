@@ -0,0 +1,5 @@
+-- Last modification time of the rows shown in list responses, used to compute list ETags
+ALTER TABLE users ADD COLUMN IF NOT EXISTS updated TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS updated TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS updated TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE item_requests ADD COLUMN IF NOT EXISTS updated TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
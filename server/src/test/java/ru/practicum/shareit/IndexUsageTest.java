@@ -0,0 +1,186 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.util.Util;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// планы строятся для SQL, который Hibernate сгенерировал при вызове метода репозитория
+@DataJpaTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class IndexUsageTest {
+    private static final Pageable PAGE = Util.page(0, 10);
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final EntityManager entityManager;
+    private final StatementCapture statements;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+
+    @BeforeEach
+    void setUp() {
+        statements.clear();
+    }
+
+    @Test
+    void findByBookerIdOrderByStartDescIdDesc_whenExplained_thenIndexIsUsed() {
+        bookingRepository.findByBookerIdOrderByStartDescIdDesc(1L, PAGE);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findByBookerIdAndStartAfterOrderByStartDescIdDesc_whenExplained_thenIndexIsUsed() {
+        bookingRepository.findByBookerIdAndStartAfterOrderByStartDescIdDesc(1L, NOW, PAGE);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findByBookerIdAndStatusOrderByStartDescIdDesc_whenExplained_thenIndexIsUsed() {
+        bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(1L, BookingStatus.WAITING, PAGE);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findByItemOwnerIdOrderByStartDescIdDesc_whenExplained_thenIndexIsUsed() {
+        bookingRepository.findByItemOwnerIdOrderByStartDescIdDesc(1L, PAGE);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findByItemOwnerIdAndStatusOrderByStartDescIdDesc_whenExplained_thenIndexIsUsed() {
+        bookingRepository.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(1L, BookingStatus.WAITING, PAGE);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findByItemIdAndStatus_whenExplained_thenIndexIsUsed() {
+        bookingRepository.findByItemIdAndStatus(1L, BookingStatus.APPROVED);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findByItemIdAndBookerIdAndEndBefore_whenExplained_thenIndexIsUsed() {
+        bookingRepository.findByItemIdAndBookerIdAndEndBefore(1L, 1L, NOW);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findAllByOwnerIdOrderByIdAsc_whenExplained_thenIndexIsUsed() {
+        itemRepository.findAllByOwnerIdOrderByIdAsc(1L, PAGE);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findDetailsById_whenExplained_thenIndexIsUsed() {
+        itemRepository.findDetailsById(1L, 1L, BookingStatus.APPROVED, NOW);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findAllByRequestIdIn_whenExplained_thenIndexIsUsed() {
+        itemRepository.findAllByRequestIdIn(Set.of(1L, 2L));
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findAllByRequesterIdOrderByCreatedDesc_whenExplained_thenIndexIsUsed() {
+        itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(1L);
+
+        assertIndexUsed();
+    }
+
+    @Test
+    void findAllByItemId_whenExplained_thenIndexIsUsed() {
+        commentRepository.findAllByItemId(1L);
+
+        assertIndexUsed();
+    }
+
+    private void assertIndexUsed() {
+        List<String> executed = new ArrayList<>(statements.get());
+        assertFalse(executed.isEmpty(), "метод репозитория не выполнил ни одного запроса");
+        for (String sql : executed) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+    }
+
+    // H2 строит план и без значений параметров, поэтому SQL объясняется в том виде, в каком его получил драйвер
+    private String explain(String sql) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+        @Bean
+        StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(StatementCapture statementCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCapture);
+        }
+    }
+
+    static class StatementCapture implements StatementInspector {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> get() {
+            return statements;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemAvailabilityCacheTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void getSlots_whenCalendarsCached_thenOnlyMissingItemsLoadedInOneQuery() {
+        ItemAvailabilityCache cache = cache();
+        when(bookingRepository.findIntervalsByItemIds(List.of(1L), BookingStatus.APPROVED))
+                .thenReturn(List.of(new BookingIntervalDto(1L, null, null)));
+        when(bookingRepository.findIntervalsByItemIds(List.of(2L, 3L), BookingStatus.APPROVED))
+                .thenReturn(List.of(new BookingIntervalDto(2L, null, null)));
+        cache.getSlots(List.of(1L), DAY, DAY.plusDays(1));
+
+        Map<Long, List<AvailabilitySlotDto>> slots = cache.getSlots(List.of(1L, 2L, 3L), DAY, DAY.plusDays(1));
+
+        assertEquals(2, slots.size());
+        assertTrue(slots.get(1L).get(0).isFree());
+        verify(bookingRepository).findIntervalsByItemIds(List.of(2L, 3L), BookingStatus.APPROVED);
+    }
+
+    @Test
+    void getSlots_whenApprovalCommittedDuringLoad_thenStaleCalendarNotCached() {
+        ItemAvailabilityCache cache = cache();
+        BookingStatusChangedEvent approval = new BookingStatusChangedEvent(1L, BookingStatus.APPROVED,
+                DAY, DAY.plusDays(1));
+        // загрузка прочитала бронирования до коммита, а событие пришло, пока календарь ещё не в кэше
+        when(bookingRepository.findIntervalsByItemIds(List.of(1L), BookingStatus.APPROVED))
+                .thenAnswer(invocation -> {
+                    cache.onBookingStatusChanged(approval);
+                    return List.of(new BookingIntervalDto(1L, null, null));
+                })
+                .thenReturn(List.of(new BookingIntervalDto(1L, DAY, DAY.plusDays(1))));
+        cache.getSlots(List.of(1L), DAY, DAY.plusDays(2));
+
+        List<AvailabilitySlotDto> slots = cache.getSlots(List.of(1L), DAY, DAY.plusDays(2)).get(1L);
+
+        assertEquals(List.of(new AvailabilitySlotDto(DAY, DAY.plusDays(1), false),
+                new AvailabilitySlotDto(DAY.plusDays(1), DAY.plusDays(2), true)), slots);
+        verify(bookingRepository, times(2)).findIntervalsByItemIds(List.of(1L), BookingStatus.APPROVED);
+    }
+
+    @Test
+    void onBookingStatusChanged_whenCalendarCached_thenMergedWithoutReload() {
+        ItemAvailabilityCache cache = cache();
+        when(bookingRepository.findIntervalsByItemIds(List.of(1L), BookingStatus.APPROVED))
+                .thenReturn(List.of(new BookingIntervalDto(1L, null, null)));
+        cache.getSlots(List.of(1L), DAY, DAY.plusDays(2));
+
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(1L, BookingStatus.APPROVED, DAY, DAY.plusDays(1)));
+
+        assertEquals(new AvailabilitySlotDto(DAY, DAY.plusDays(1), false),
+                cache.getSlots(List.of(1L), DAY, DAY.plusDays(2)).get(1L).get(0));
+        verify(bookingRepository).findIntervalsByItemIds(List.of(1L), BookingStatus.APPROVED);
+    }
+
+    @Test
+    void onBookingStatusChanged_whenApprovedRepeatedly_thenExpiryNotExtended() {
+        ItemAvailabilityCache cache = cache();
+        when(bookingRepository.findIntervalsByItemIds(List.of(1L), BookingStatus.APPROVED))
+                .thenReturn(List.of(new BookingIntervalDto(1L, null, null)));
+        cache.getSlots(List.of(1L), DAY, DAY.plusDays(2));
+
+        for (int i = 0; i < 3; i++) {
+            now.addAndGet(TimeUnit.SECONDS.toNanos(25));
+            cache.onBookingStatusChanged(new BookingStatusChangedEvent(1L, BookingStatus.APPROVED,
+                    DAY.plusDays(i), DAY.plusDays(i).plusHours(1)));
+        }
+        cache.getSlots(List.of(1L), DAY, DAY.plusDays(2));
+
+        verify(bookingRepository, times(2)).findIntervalsByItemIds(List.of(1L), BookingStatus.APPROVED);
+    }
+
+    private ItemAvailabilityCache cache() {
+        return new ItemAvailabilityCache(bookingRepository, "maximumSize=100", Duration.ofMinutes(1), now::get);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemCalendarTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void slots_whenNoBookings_thenWholeWindowFree() {
+        List<AvailabilitySlotDto> slots = ItemCalendar.EMPTY.slots(DAY, DAY.plusDays(90));
+
+        assertEquals(List.of(free(DAY, DAY.plusDays(90))), slots);
+    }
+
+    @Test
+    void slots_whenBookingsInsideWindow_thenFreeAndBusySlotsAlternate() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(
+                interval(DAY.plusDays(5), DAY.plusDays(6)),
+                interval(DAY.plusDays(1), DAY.plusDays(2))));
+
+        List<AvailabilitySlotDto> slots = calendar.slots(DAY, DAY.plusDays(10));
+
+        assertEquals(List.of(
+                free(DAY, DAY.plusDays(1)),
+                busy(DAY.plusDays(1), DAY.plusDays(2)),
+                free(DAY.plusDays(2), DAY.plusDays(5)),
+                busy(DAY.plusDays(5), DAY.plusDays(6)),
+                free(DAY.plusDays(6), DAY.plusDays(10))), slots);
+    }
+
+    @Test
+    void slots_whenBookingsCrossWindowBounds_thenBusySlotsClipped() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(
+                interval(DAY.minusDays(1), DAY.plusDays(1)),
+                interval(DAY.plusDays(3), DAY.plusDays(30)),
+                interval(DAY.plusDays(40), DAY.plusDays(41))));
+
+        List<AvailabilitySlotDto> slots = calendar.slots(DAY, DAY.plusDays(4));
+
+        assertEquals(List.of(
+                busy(DAY, DAY.plusDays(1)),
+                free(DAY.plusDays(1), DAY.plusDays(3)),
+                busy(DAY.plusDays(3), DAY.plusDays(4))), slots);
+    }
+
+    @Test
+    void slots_whenBookingEndsAtWindowStart_thenBookingIgnored() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(interval(DAY.minusDays(1), DAY)));
+
+        assertEquals(List.of(free(DAY, DAY.plusDays(1))), calendar.slots(DAY, DAY.plusDays(1)));
+    }
+
+    @Test
+    void of_whenIntervalsOverlapOrTouch_thenMerged() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(
+                interval(DAY, DAY.plusDays(2)),
+                interval(DAY.plusDays(1), DAY.plusDays(3)),
+                interval(DAY.plusDays(3), DAY.plusDays(4))));
+
+        assertEquals(1, calendar.size());
+        assertEquals(List.of(busy(DAY, DAY.plusDays(4))), calendar.slots(DAY, DAY.plusDays(4)));
+    }
+
+    @Test
+    void of_whenItemHasNoBookings_thenEmptyBoundsSkipped() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(new BookingIntervalDto(0L, null, null)));
+
+        assertEquals(0, calendar.size());
+        assertEquals(List.of(free(DAY, DAY.plusDays(1))), calendar.slots(DAY, DAY.plusDays(1)));
+    }
+
+    @Test
+    void with_whenIntervalBridgesTwoBookings_thenAllMergedAndOthersKept() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(
+                interval(DAY, DAY.plusDays(1)),
+                interval(DAY.plusDays(2), DAY.plusDays(3)),
+                interval(DAY.plusDays(4), DAY.plusDays(5)),
+                interval(DAY.plusDays(7), DAY.plusDays(8))));
+
+        ItemCalendar updated = calendar.with(DAY.plusDays(2).plusHours(12), DAY.plusDays(4).plusHours(1));
+
+        assertEquals(4, calendar.size());
+        assertEquals(3, updated.size());
+        assertEquals(List.of(
+                busy(DAY, DAY.plusDays(1)),
+                free(DAY.plusDays(1), DAY.plusDays(2)),
+                busy(DAY.plusDays(2), DAY.plusDays(5)),
+                free(DAY.plusDays(5), DAY.plusDays(7)),
+                busy(DAY.plusDays(7), DAY.plusDays(8))), updated.slots(DAY, DAY.plusDays(8)));
+    }
+
+    @Test
+    void with_whenIntervalAlreadyPresent_thenCalendarUnchanged() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(interval(DAY, DAY.plusDays(1))));
+
+        ItemCalendar updated = calendar.with(DAY, DAY.plusDays(1));
+
+        assertEquals(1, updated.size());
+        assertEquals(calendar.slots(DAY, DAY.plusDays(2)), updated.slots(DAY, DAY.plusDays(2)));
+    }
+
+    @Test
+    void with_whenBoundsHaveFractionalSeconds_thenIntervalWidenedToWholeSeconds() {
+        ItemCalendar calendar = ItemCalendar.EMPTY.with(DAY.plusNanos(500), DAY.plusSeconds(1).plusNanos(500));
+
+        assertEquals(List.of(busy(DAY, DAY.plusSeconds(2)), free(DAY.plusSeconds(2), DAY.plusSeconds(3))),
+                calendar.slots(DAY, DAY.plusSeconds(3)));
+    }
+
+    private static BookingIntervalDto interval(LocalDateTime start, LocalDateTime end) {
+        return new BookingIntervalDto(0L, start, end);
+    }
+
+    private static AvailabilitySlotDto free(LocalDateTime start, LocalDateTime end) {
+        return new AvailabilitySlotDto(start, end, true);
+    }
+
+    private static AvailabilitySlotDto busy(LocalDateTime start, LocalDateTime end) {
+        return new AvailabilitySlotDto(start, end, false);
+    }
+}
@@ -9,9 +9,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -21,13 +27,24 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.util.Header;
+import ru.practicum.shareit.util.PageCursor;
 import ru.practicum.shareit.util.Util;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -137,6 +154,47 @@ class BookingControllerTest {
         verify(bookingService).updateBooking(ownerId, bookingId, approved);
     }
 
+    @SneakyThrows
+    @Test
+    void changeBookingStatus_whenApprovedBookingsOverlapInDatabase_thenStatusIsConflictWithoutDatabaseMessage() {
+        Long ownerId = 0L;
+        Long bookingId = 0L;
+        when(bookingService.updateBooking(ownerId, bookingId, true)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("ERROR: conflicting key value violates " +
+                "exclusion constraint \"bookings_approved_no_overlap\"", "23P01")));
+
+        mvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .header(Header.USER_ID, ownerId)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.description").value("Вещь уже забронирована на это время"));
+    }
+
+    @SneakyThrows
+    @Test
+    void changeBookingStatuses_whenInvoked_thenStatusIsOkAndResultsReturned() {
+        Long ownerId = 0L;
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false));
+        List<BookingDecisionResultDto> results = List.of(
+                new BookingDecisionResultDto(1L, BookingStatus.APPROVED, null),
+                new BookingDecisionResultDto(2L, null, "Бронирование с id=2 не найдено"));
+        when(bookingService.updateBookings(ownerId, decisions)).thenReturn(results);
+
+        String result = mvc.perform(patch("/bookings/batch")
+                        .header(Header.USER_ID, ownerId)
+                        .content(mapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(mapper.writeValueAsString(results), result);
+        verify(bookingService, never()).updateBooking(any(), any(), any());
+    }
+
     @SneakyThrows
     @Test
     void getBooking_whenInvoked_thenStatusIsOkAndServiceMethodCalled() {
@@ -186,4 +244,118 @@ class BookingControllerTest {
 
         verify(bookingService).getAllOwnerBookingsByState(userId, state, from, size);
     }
+
+    @SneakyThrows
+    @Test
+    void getAllUserBookings_whenIfNoneMatchEqualsETag_thenNotModifiedAndBookingsNotLoaded() {
+        Long userId = 0L;
+        String eTag = "W/\"1\"";
+        when(bookingService.getUserBookingsETag(userId, "ALL")).thenReturn(eTag);
+
+        mvc.perform(get("/bookings")
+                        .header(Header.USER_ID, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .param("size", "10"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        verify(bookingService, never()).getAllUserBookingsByState(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllOwnerBookings_whenETagChanged_thenStatusIsOkAndNewETagReturned() {
+        Long userId = 0L;
+        when(bookingService.getOwnerBookingsETag(userId, "ALL")).thenReturn("W/\"2\"");
+        when(bookingService.getAllOwnerBookingsByState(userId, "ALL", 0, 10)).thenReturn(List.of(booking));
+
+        mvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1\"")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2\""));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllUserBookings_whenCursorPassed_thenKeysetServiceMethodCalledAndNextCursorReturned() {
+        Long userId = 0L;
+        String state = "ALL";
+        Integer size = 1;
+        PageCursor cursor = PageCursor.of(booking.getStart().plusDays(1), 5L);
+        when(bookingService.getUserBookingsAfter(userId, state, cursor, size)).thenReturn(List.of(booking));
+
+        mvc.perform(get("/bookings")
+                        .header(Header.USER_ID, userId)
+                        .param("state", state)
+                        .param("size", String.valueOf(size))
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(Header.NEXT_CURSOR,
+                        PageCursor.of(booking.getStart(), booking.getId()).encode()));
+
+        verify(bookingService, never()).getAllUserBookingsByState(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllOwnerBookings_whenPageNotFull_thenNextCursorNotReturned() {
+        Long userId = 0L;
+        String state = "ALL";
+        Integer size = 10;
+        PageCursor cursor = PageCursor.of(booking.getStart().plusDays(1), 5L);
+        when(bookingService.getOwnerBookingsAfter(userId, state, cursor, size)).thenReturn(List.of(booking));
+
+        mvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID, userId)
+                        .param("state", state)
+                        .param("size", String.valueOf(size))
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(Header.NEXT_CURSOR));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllUserBookings_whenCursorMalformed_thenStatusIsBadRequest() {
+        mvc.perform(get("/bookings")
+                        .header(Header.USER_ID, 0L)
+                        .param("size", "10")
+                        .param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportOwnerBookings_whenInvoked_thenExportStreamedWithFormatContentType() {
+        Long ownerId = 0L;
+        when(bookingService.exportOwnerBookings(ownerId, BookingExportFormat.NDJSON))
+                .thenReturn(out -> out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mvc.perform(get("/bookings/owner/export")
+                        .header(Header.USER_ID, ownerId)
+                        .param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", BookingExportFormat.NDJSON.getMediaType()))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @SneakyThrows
+    @Test
+    void exportOwnerBookings_whenFormatUnknown_thenStatusIsBadRequestAndServiceMethodNeverCalled() {
+        mvc.perform(get("/bookings/owner/export")
+                        .header(Header.USER_ID, 0L)
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).exportOwnerBookings(any(), any());
+    }
 }
@@ -0,0 +1,282 @@
+package ru.practicum.shareit.booking.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.BookingListVersionDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.PageCursor;
+import ru.practicum.shareit.util.Util;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingRepositoryTest {
+    private static final int BOOKINGS_COUNT = 5;
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(3000, 1, 1, 0, 0);
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+
+    private User owner;
+    private User booker;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@email.com").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@email.com").build());
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 12, 0);
+        for (int i = 0; i < BOOKINGS_COUNT; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("item " + i)
+                    .description("description " + i)
+                    .available(true)
+                    .ownerId(owner.getId())
+                    .build());
+            bookings.add(bookingRepository.save(Booking.builder()
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.APPROVED)
+                    .build()));
+        }
+        // последняя пара бронирований с одинаковым началом проверяет сортировку по id внутри курсора
+        bookings.add(bookingRepository.save(bookings.get(BOOKINGS_COUNT - 1).toBuilder().id(null).build()));
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    @Test
+    void findByBookerIdOrderByStartDescIdDesc_whenPageMapped_thenSingleStatementExecuted() {
+        List<BookingDto> dtos = bookingRepository.findByBookerIdOrderByStartDescIdDesc(booker.getId(), Util.page(0, 10))
+                .stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+
+        assertEquals(BOOKINGS_COUNT + 1, dtos.size());
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void findByItemOwnerIdOrderByStartDescIdDesc_whenPageMapped_thenSingleStatementExecuted() {
+        List<BookingDto> dtos = bookingRepository
+                .findByItemOwnerIdOrderByStartDescIdDesc(owner.getId(), Util.page(0, 10))
+                .stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+
+        assertEquals(BOOKINGS_COUNT + 1, dtos.size());
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_whenMapped_thenSingleStatementExecuted() {
+        Booking booking = bookingRepository.findById(bookings.get(0).getId()).orElseThrow();
+
+        BookingMapper.toBookingDto(booking);
+
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void findByBookerIdAfterCursor_whenPagedThroughCursor_thenAllBookingsReturnedOnceInOrder() {
+        List<Long> expected = bookingRepository.findByBookerIdOrderByStartDescIdDesc(booker.getId(), Util.page(0, 10))
+                .stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        statistics().clear();
+
+        List<Long> actual = new ArrayList<>();
+        PageCursor cursor = PageCursor.of(FAR_FUTURE, Long.MAX_VALUE);
+        List<Booking> page;
+        do {
+            page = bookingRepository.findByBookerIdAfterCursor(booker.getId(), BookingState.ALL, Util.now(),
+                    cursor, 2);
+            page.forEach(BookingMapper::toBookingDto);
+            page.forEach(b -> actual.add(b.getId()));
+            if (!page.isEmpty()) {
+                Booking last = page.get(page.size() - 1);
+                cursor = PageCursor.of(last.getStart(), last.getId());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(expected, actual);
+        assertEquals(4, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void findByItemOwnerIdAfterCursor_whenStateIsPast_thenOnlyEndedBookingsReturned() {
+        LocalDateTime now = bookings.get(2).getEnd().plusMinutes(1);
+
+        List<Booking> page = bookingRepository.findByItemOwnerIdAfterCursor(owner.getId(), BookingState.PAST, now,
+                PageCursor.of(FAR_FUTURE, Long.MAX_VALUE), 10);
+
+        assertEquals(List.of(bookings.get(2).getId(), bookings.get(1).getId(), bookings.get(0).getId()),
+                page.stream().map(Booking::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void existsByItemIdAndStatusInAndStartBeforeAndEndAfter_whenIntervalsTouchOrOverlap_thenOnlyOverlapFound() {
+        Booking booking = bookings.get(0);
+        Long itemId = booking.getItem().getId();
+        Set<BookingStatus> statuses = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertTrue(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId, statuses,
+                booking.getEnd().plusMinutes(30), booking.getStart().plusMinutes(30)));
+        assertFalse(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId, statuses,
+                booking.getEnd().plusHours(1), booking.getEnd()));
+        assertFalse(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId,
+                EnumSet.of(BookingStatus.WAITING), booking.getEnd(), booking.getStart()));
+    }
+
+    @Test
+    void existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot_whenOnlySameBooking_thenNotFound() {
+        Booking booking = bookings.get(0);
+
+        assertFalse(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(
+                booking.getItem().getId(), BookingStatus.APPROVED, booking.getEnd(), booking.getStart(),
+                booking.getId()));
+    }
+
+    @Test
+    void findIntervalsByItemIds_whenItemsWithAndWithoutBookings_thenRowPerBookingAndPerFreeItemInSingleStatement() {
+        Item freeItem = itemRepository.save(Item.builder()
+                .name("free item")
+                .description("free item description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+        Booking booking = bookings.get(0);
+        Long itemId = booking.getItem().getId();
+        Long missingItemId = freeItem.getId() + 1;
+        entityManager.flush();
+        statistics().clear();
+
+        List<BookingIntervalDto> intervals = bookingRepository.findIntervalsByItemIds(
+                List.of(itemId, freeItem.getId(), missingItemId), BookingStatus.APPROVED);
+
+        assertEquals(2, intervals.size());
+        assertTrue(intervals.contains(new BookingIntervalDto(itemId, booking.getStart(), booking.getEnd())));
+        assertTrue(intervals.contains(new BookingIntervalDto(freeItem.getId(), null, null)));
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void updateStatuses_whenSomeBookingsNotInExpectedStatus_thenOnlyMatchingUpdatedAndVersionIncremented() {
+        Booking rejected = bookings.get(0);
+        Booking canceled = bookings.get(1);
+        bookingRepository.updateStatus(canceled.getId(), BookingStatus.APPROVED, BookingStatus.CANCELED);
+        Long missingBookingId = bookings.get(bookings.size() - 1).getId() + 1;
+        Map<Long, BookingStatus> newStatuses = new LinkedHashMap<>();
+        newStatuses.put(rejected.getId(), BookingStatus.REJECTED);
+        newStatuses.put(canceled.getId(), BookingStatus.REJECTED);
+        newStatuses.put(missingBookingId, BookingStatus.REJECTED);
+
+        Set<Long> updated = bookingRepository.updateStatuses(newStatuses, BookingStatus.APPROVED);
+        entityManager.clear();
+
+        assertEquals(Set.of(rejected.getId()), updated);
+        Booking actualRejected = bookingRepository.findById(rejected.getId()).orElseThrow();
+        assertEquals(BookingStatus.REJECTED, actualRejected.getStatus());
+        assertEquals(rejected.getVersion() + 1, actualRejected.getVersion());
+        assertEquals(BookingStatus.CANCELED, bookingRepository.findById(canceled.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void streamByItemOwnerId_whenConsumed_thenRowsOrderedAndNoEntitiesLoaded() {
+        List<Long> expected = bookings.stream()
+                .sorted((b1, b2) -> b1.getStart().equals(b2.getStart())
+                        ? b2.getId().compareTo(b1.getId())
+                        : b2.getStart().compareTo(b1.getStart()))
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+
+        List<BookingExportDto> rows;
+        try (Stream<BookingExportDto> stream = bookingRepository.streamByItemOwnerId(owner.getId())) {
+            rows = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(expected, rows.stream().map(BookingExportDto::getId).collect(Collectors.toList()));
+        assertEquals("booker", rows.get(0).getBookerName());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void streamByItemOwnerId_whenNotOwner_thenEmpty() {
+        try (Stream<BookingExportDto> stream = bookingRepository.streamByItemOwnerId(booker.getId())) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void getVersionByItemOwnerId_whenStatusUpdatedOrBookingDeleted_thenVersionChanged() {
+        Booking first = bookings.get(0);
+        BookingListVersionDto initial = bookingRepository.getVersionByItemOwnerId(owner.getId(), FAR_FUTURE);
+
+        bookingRepository.updateStatus(first.getId(), BookingStatus.APPROVED, BookingStatus.CANCELED, FAR_FUTURE);
+        BookingListVersionDto updated = bookingRepository.getVersionByItemOwnerId(owner.getId(), FAR_FUTURE);
+        bookingRepository.deleteById(bookings.get(1).getId());
+        entityManager.flush();
+        BookingListVersionDto deleted = bookingRepository.getVersionByItemOwnerId(owner.getId(), FAR_FUTURE);
+
+        assertEquals(bookings.size(), initial.getCount());
+        assertEquals(FAR_FUTURE, updated.getUpdated());
+        assertEquals(initial.getCount(), updated.getCount());
+        assertEquals(initial.getCount() - 1, deleted.getCount());
+        assertEquals(updated.getUpdated(), deleted.getUpdated());
+    }
+
+    @Test
+    void getVersionByBookerId_whenTimePasses_thenStartedAndEndedCountsChanged() {
+        LocalDateTime firstStart = bookings.get(0).getStart();
+
+        BookingListVersionDto beforeAll = bookingRepository.getVersionByBookerId(booker.getId(), firstStart.minusDays(1));
+        BookingListVersionDto duringFirst = bookingRepository.getVersionByBookerId(booker.getId(),
+                firstStart.plusMinutes(30));
+        BookingListVersionDto afterAll = bookingRepository.getVersionByBookerId(booker.getId(), FAR_FUTURE);
+
+        assertEquals(0, beforeAll.getStarted());
+        assertEquals(1, duringFirst.getStarted());
+        assertEquals(0, duringFirst.getEnded());
+        assertEquals(bookings.size(), afterAll.getEnded());
+        assertEquals(beforeAll.getUpdated(), afterAll.getUpdated());
+        assertEquals(0, bookingRepository.getVersionByBookerId(owner.getId(), FAR_FUTURE).getCount());
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+}
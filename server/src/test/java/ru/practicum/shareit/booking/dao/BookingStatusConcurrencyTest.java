@@ -0,0 +1,139 @@
+package ru.practicum.shareit.booking.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
+import ru.practicum.shareit.booking.export.BookingExporter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+
+// транзакции коммитятся по-настоящему, поэтому тест не откатывается и удаляет свои данные сам
+@DataJpaTest
+@Import(BookingServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingStatusConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 10;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final BookingService bookingService;
+
+    @MockBean
+    private final UserService userService;
+    @MockBean
+    private final ItemAvailabilityCache itemAvailabilityCache;
+    @MockBean
+    private final BookingExporter bookingExporter;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("concurrency-owner@email.com").build());
+        booker = userRepository.save(User.builder().name("booker").email("concurrency-booker@email.com").build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // вещи и бронирования удаляются каскадно вместе с пользователями
+        userRepository.deleteById(booker.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void updateBooking_whenManyThreadsDecideSameBooking_thenOneSucceedsAndOthersGetConflict() throws Exception {
+        // все потоки прочитали бронирование в статусе WAITING и только потом меняют его
+        CyclicBarrier allRead = new CyclicBarrier(THREADS);
+        doAnswer(invocation -> allRead.await(10, TimeUnit.SECONDS)).when(userService).checkUserExists(owner.getId());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Long bookingId = saveWaitingBooking(START.plusDays(round)).getId();
+                List<Future<Booking>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    boolean approved = i % 2 == 0;
+                    results.add(executor.submit(() ->
+                            bookingService.updateBooking(owner.getId(), bookingId, approved)));
+                }
+
+                List<Booking> decided = new ArrayList<>();
+                int conflicts = 0;
+                for (Future<Booking> result : results) {
+                    try {
+                        decided.add(result.get(10, TimeUnit.SECONDS));
+                    } catch (ExecutionException e) {
+                        // ErrorHandler отвечает на это исключение статусом 409
+                        assertInstanceOf(ObjectOptimisticLockingFailureException.class, e.getCause());
+                        conflicts++;
+                    }
+                }
+                Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+
+                assertEquals(1, decided.size());
+                assertEquals(THREADS - 1, conflicts);
+                assertEquals(decided.get(0).getStatus(), booking.getStatus());
+                assertEquals(1L, booking.getVersion());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void save_whenBookingChangedAfterRead_thenOptimisticLockingFailureThrown() {
+        Long bookingId = saveWaitingBooking(START).getId();
+        Booking staleBooking = bookingRepository.findById(bookingId).orElseThrow();
+
+        bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> bookingRepository.save(staleBooking.toBuilder().status(BookingStatus.REJECTED).build()));
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+    }
+
+    private Booking saveWaitingBooking(LocalDateTime start) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+    }
+}
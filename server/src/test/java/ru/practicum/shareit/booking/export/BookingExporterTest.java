@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExporterTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingExporter bookingExporter;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        bookingExporter = new BookingExporter(bookingRepository, objectMapper);
+    }
+
+    @Test
+    void writeOwnerBookings_whenCsv_thenHeaderAndRowPerBookingWithEscapedText() throws Exception {
+        Long ownerId = 0L;
+        Stream<BookingExportDto> bookings = Stream.of(
+                booking(1L, "drill", "booker"),
+                booking(2L, "saw, \"sharp\"", "second\nbooker"));
+        when(bookingRepository.streamByItemOwnerId(ownerId)).thenReturn(bookings);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingExporter.writeOwnerBookings(ownerId, BookingExportFormat.CSV, out);
+
+        assertEquals("id,start,end,status,itemId,itemName,bookerId,bookerName\n" +
+                "1,2030-01-01T12:00:00,2030-01-02T12:00:00,APPROVED,10,drill,20,booker\n" +
+                "2,2030-01-01T12:00:00,2030-01-02T12:00:00,APPROVED,10,\"saw, \"\"sharp\"\"\",20,\"second\nbooker\"\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeOwnerBookings_whenNdjson_thenJsonObjectPerLine() throws Exception {
+        Long ownerId = 0L;
+        when(bookingRepository.streamByItemOwnerId(ownerId))
+                .thenReturn(Stream.of(booking(1L, "drill", "booker"), booking(2L, "saw", "booker")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingExporter.writeOwnerBookings(ownerId, BookingExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"start\":\"2030-01-01T12:00:00\""), lines[0]);
+        assertTrue(lines[1].contains("\"itemName\":\"saw\""), lines[1]);
+    }
+
+    @Test
+    void writeOwnerBookings_whenNoBookings_thenOnlyCsvHeaderWrittenAndStreamClosed() throws Exception {
+        Long ownerId = 0L;
+        boolean[] closed = {false};
+        when(bookingRepository.streamByItemOwnerId(ownerId))
+                .thenReturn(Stream.<BookingExportDto>empty().onClose(() -> closed[0] = true));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingExporter.writeOwnerBookings(ownerId, BookingExportFormat.CSV, out);
+
+        assertEquals("id,start,end,status,itemId,itemName,bookerId,bookerName\n", out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed[0]);
+    }
+
+    private static BookingExportDto booking(Long id, String itemName, String bookerName) {
+        return new BookingExportDto(id, START, START.plusDays(1), BookingStatus.APPROVED, 10L, itemName, 20L,
+                bookerName);
+    }
+}
@@ -2,16 +2,27 @@ package ru.practicum.shareit.booking.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.BookingListVersionDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.export.BookingExport;
+import ru.practicum.shareit.booking.export.BookingExporter;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
@@ -22,13 +33,18 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.util.Util;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,13 +56,16 @@ class BookingServiceImplTest {
     private UserService userService;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemAvailabilityCache itemAvailabilityCache;
+    @Mock
+    private BookingExporter bookingExporter;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private BookingServiceImpl bookingService;
 
-    @Captor
-    private ArgumentCaptor<Booking> bookingArgumentCaptor;
-
     @Test
     void addBooking_whenItemAvailableAndUserIsNotOwnerAndCorrectTime_thenReturnSavedBooking() {
         Long bookerId = 0L;
@@ -115,23 +134,105 @@ class BookingServiceImplTest {
         verify(bookingRepository, never()).save(booking);
     }
 
+    @Test
+    void addBooking_whenItemAlreadyBookedForThisTime_thenValidationExceptionThrown() {
+        Long bookerId = 0L;
+        LocalDateTime time = LocalDateTime.of(0, 1, 1, 0, 0, 0);
+        InputBookingDto dto = InputBookingDto.builder().start(time).end(time.plusMinutes(10)).build();
+        User user = User.builder().id(bookerId).build();
+        when(userService.getUser(anyLong())).thenReturn(user);
+        Item item = Item.builder().id(1L).available(true).build();
+        when(itemRepository.findById(dto.getItemId())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(eq(item.getId()), any(),
+                eq(dto.getEnd()), eq(dto.getStart()))).thenReturn(true);
+
+        assertThrows(ResourceValidationException.class,
+                () -> bookingService.addBooking(dto, bookerId));
+
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
     @Test
     void updateBooking_whenUserIsOwnerAndStatusIsWaiting_thenReturnUpdatedBooking() {
         Long ownerId = 0L;
         Long bookingId = 0L;
         Boolean approved = true;
-        User owner = User.builder().id(ownerId).build();
         Item item = Item.builder().id(0L).ownerId(ownerId).build();
-        Booking oldBooking = Booking.builder().item(item).status(BookingStatus.WAITING).build();
+        Booking oldBooking = Booking.builder().item(item).status(BookingStatus.WAITING).version(0L).build();
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+
+        Booking updatedBooking = bookingService.updateBooking(ownerId, bookingId, approved);
+
+        assertEquals(BookingStatus.APPROVED, updatedBooking.getStatus());
+        assertEquals(1L, updatedBooking.getVersion());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void updateBooking_whenStatusChangedConcurrently_thenOptimisticLockingFailureThrownAndEventNotPublished() {
+        Long ownerId = 0L;
+        Long bookingId = 0L;
+        Item item = Item.builder().id(0L).ownerId(ownerId).build();
+        Booking oldBooking = Booking.builder().item(item).status(BookingStatus.WAITING).version(0L).build();
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(0);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> bookingService.updateBooking(ownerId, bookingId, true));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateBooking_whenApproved_thenStatusChangedEventPublishedWithBookingInterval() {
+        Long ownerId = 0L;
+        Long bookingId = 0L;
+        LocalDateTime time = LocalDateTime.of(0, 1, 1, 0, 0, 0);
+        Item item = Item.builder().id(1L).ownerId(ownerId).build();
+        Booking oldBooking = Booking.builder().id(bookingId).start(time).end(time.plusMinutes(10)).item(item)
+                .status(BookingStatus.WAITING).version(0L).build();
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+
+        bookingService.updateBooking(ownerId, bookingId, true);
+
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(item.getId(), BookingStatus.APPROVED,
+                oldBooking.getStart(), oldBooking.getEnd()));
+    }
+
+    @Test
+    void updateBooking_whenApprovedBookingOverlaps_thenValidationExceptionThrown() {
+        Long ownerId = 0L;
+        Long bookingId = 0L;
+        LocalDateTime time = LocalDateTime.of(0, 1, 1, 0, 0, 0);
+        Item item = Item.builder().id(0L).ownerId(ownerId).build();
+        Booking oldBooking = Booking.builder().id(bookingId).start(time).end(time.plusMinutes(10)).item(item)
+                .status(BookingStatus.WAITING).build();
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(oldBooking));
-        when(userService.getUser(ownerId)).thenReturn(owner);
+        when(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(item.getId(),
+                BookingStatus.APPROVED, oldBooking.getEnd(), oldBooking.getStart(), bookingId)).thenReturn(true);
 
-        bookingService.updateBooking(ownerId, bookingId, approved);
+        assertThrows(ResourceValidationException.class,
+                () -> bookingService.updateBooking(ownerId, bookingId, true));
 
-        verify(bookingRepository).save(bookingArgumentCaptor.capture());
-        Booking savedBooking = bookingArgumentCaptor.getValue();
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
+    }
 
-        assertEquals(BookingStatus.APPROVED, savedBooking.getStatus());
+    @Test
+    void updateBooking_whenRejected_thenOverlapNotChecked() {
+        Long ownerId = 0L;
+        Long bookingId = 0L;
+        Item item = Item.builder().id(0L).ownerId(ownerId).build();
+        Booking oldBooking = Booking.builder().item(item).status(BookingStatus.WAITING).version(0L).build();
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(1);
+
+        Booking updatedBooking = bookingService.updateBooking(ownerId, bookingId, false);
+
+        verify(bookingRepository, never()).existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(any(), any(),
+                any(), any(), any());
+        assertEquals(BookingStatus.REJECTED, updatedBooking.getStatus());
     }
 
     @Test
@@ -139,16 +240,14 @@ class BookingServiceImplTest {
         Long ownerId = 0L;
         Long bookingId = 0L;
         Boolean approved = true;
-        User owner = User.builder().build();
-        Item item = Item.builder().id(0L).ownerId(ownerId).build();
+        Item item = Item.builder().id(0L).ownerId(1L).build();
         Booking oldBooking = Booking.builder().item(item).status(BookingStatus.WAITING).build();
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(oldBooking));
-        when(userService.getUser(ownerId)).thenReturn(owner);
 
         assertThrows(ResourceNotFoundException.class,
                 () -> bookingService.updateBooking(ownerId, bookingId, approved));
 
-        verify(bookingRepository, never()).save(oldBooking);
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
     }
 
     @Test
@@ -156,16 +255,127 @@ class BookingServiceImplTest {
         Long ownerId = 0L;
         Long bookingId = 0L;
         Boolean approved = true;
-        User owner = User.builder().id(ownerId).build();
         Item item = Item.builder().id(0L).ownerId(ownerId).build();
         Booking oldBooking = Booking.builder().item(item).status(BookingStatus.REJECTED).build();
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(oldBooking));
-        when(userService.getUser(ownerId)).thenReturn(owner);
 
         assertThrows(ResourceValidationException.class,
                 () -> bookingService.updateBooking(ownerId, bookingId, approved));
 
-        verify(bookingRepository, never()).save(oldBooking);
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void updateBookings_whenDecisionsMixed_thenResultPerBookingInRequestOrder() {
+        Long ownerId = 0L;
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        Item item = Item.builder().id(1L).ownerId(ownerId).build();
+        Item otherItem = Item.builder().id(2L).ownerId(ownerId).build();
+        Booking approved = Booking.builder().id(1L).start(time).end(time.plusDays(1)).item(item)
+                .status(BookingStatus.WAITING).build();
+        Booking alreadyApproved = Booking.builder().id(2L).start(time).end(time.plusDays(1)).item(otherItem)
+                .status(BookingStatus.APPROVED).build();
+        Booking overlapsStored = Booking.builder().id(4L).start(time.plusDays(10)).end(time.plusDays(11)).item(item)
+                .status(BookingStatus.WAITING).build();
+        Booking overlapsBatch = Booking.builder().id(5L).start(time.plusHours(12)).end(time.plusDays(2)).item(item)
+                .status(BookingStatus.WAITING).build();
+        Booking rejected = Booking.builder().id(6L).start(time.plusHours(12)).end(time.plusDays(2)).item(item)
+                .status(BookingStatus.WAITING).build();
+        when(bookingRepository.findAllByIdIn(Set.of(1L, 2L, 3L, 4L, 5L, 6L)))
+                .thenReturn(List.of(approved, alreadyApproved, overlapsStored, overlapsBatch, rejected));
+        when(bookingRepository.findIntervalsByItemIds(Set.of(item.getId()), BookingStatus.APPROVED))
+                .thenReturn(List.of(new BookingIntervalDto(item.getId(), time.plusDays(9), time.plusDays(12))));
+        when(bookingRepository.updateStatuses(Map.of(1L, BookingStatus.APPROVED, 6L, BookingStatus.REJECTED),
+                BookingStatus.WAITING)).thenReturn(Set.of(1L, 6L));
+
+        List<BookingDecisionResultDto> results = bookingService.updateBookings(ownerId, List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false),
+                new BookingDecisionDto(3L, true),
+                new BookingDecisionDto(4L, true),
+                new BookingDecisionDto(5L, true),
+                new BookingDecisionDto(6L, false),
+                new BookingDecisionDto(1L, false)));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L),
+                results.stream().map(BookingDecisionResultDto::getBookingId).collect(Collectors.toList()));
+        assertEquals(new BookingDecisionResultDto(1L, BookingStatus.APPROVED, null), results.get(0));
+        assertEquals(BookingStatus.APPROVED, results.get(1).getStatus());
+        assertNotNull(results.get(1).getError());
+        assertNull(results.get(2).getStatus());
+        assertNotNull(results.get(2).getError());
+        assertEquals(BookingStatus.WAITING, results.get(3).getStatus());
+        assertNotNull(results.get(3).getError());
+        assertEquals(BookingStatus.WAITING, results.get(4).getStatus());
+        assertNotNull(results.get(4).getError());
+        assertEquals(new BookingDecisionResultDto(6L, BookingStatus.REJECTED, null), results.get(5));
+        verify(userService).checkUserExists(ownerId);
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(item.getId(), BookingStatus.APPROVED,
+                approved.getStart(), approved.getEnd()));
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(item.getId(), BookingStatus.REJECTED,
+                rejected.getStart(), rejected.getEnd()));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateBookings_whenStatusChangedConcurrently_thenDecisionFailedAndEventNotPublished() {
+        Long ownerId = 0L;
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        Item item = Item.builder().id(1L).ownerId(ownerId).build();
+        Booking booking = Booking.builder().id(1L).start(time).end(time.plusDays(1)).item(item)
+                .status(BookingStatus.WAITING).build();
+        when(bookingRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(booking));
+        when(bookingRepository.findIntervalsByItemIds(Set.of(item.getId()), BookingStatus.APPROVED))
+                .thenReturn(List.of(new BookingIntervalDto(item.getId(), null, null)));
+        when(bookingRepository.updateStatuses(Map.of(1L, BookingStatus.APPROVED), BookingStatus.WAITING))
+                .thenReturn(Set.of());
+
+        List<BookingDecisionResultDto> results = bookingService.updateBookings(ownerId,
+                List.of(new BookingDecisionDto(1L, true)));
+
+        assertEquals(1, results.size());
+        assertNull(results.get(0).getStatus());
+        assertNotNull(results.get(0).getError());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateBookings_whenDecisionMissing_thenDecisionFailedAndOtherDecisionsApplied() {
+        Long ownerId = 0L;
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        Item item = Item.builder().id(1L).ownerId(ownerId).build();
+        Booking undecided = Booking.builder().id(1L).start(time).end(time.plusDays(1)).item(item)
+                .status(BookingStatus.WAITING).build();
+        Booking rejected = Booking.builder().id(2L).start(time).end(time.plusDays(1)).item(item)
+                .status(BookingStatus.WAITING).build();
+        when(bookingRepository.findAllByIdIn(Set.of(1L, 2L))).thenReturn(List.of(undecided, rejected));
+        when(bookingRepository.updateStatuses(Map.of(2L, BookingStatus.REJECTED), BookingStatus.WAITING))
+                .thenReturn(Set.of(2L));
+
+        List<BookingDecisionResultDto> results = bookingService.updateBookings(ownerId, List.of(
+                new BookingDecisionDto(1L, null),
+                new BookingDecisionDto(2L, false)));
+
+        assertEquals(2, results.size());
+        assertEquals(BookingStatus.WAITING, results.get(0).getStatus());
+        assertNotNull(results.get(0).getError());
+        assertEquals(new BookingDecisionResultDto(2L, BookingStatus.REJECTED, null), results.get(1));
+    }
+
+    @Test
+    void updateBookings_whenUserIsNotOwner_thenBookingNotFoundAndNothingUpdated() {
+        Long ownerId = 0L;
+        Item item = Item.builder().id(1L).ownerId(99L).build();
+        Booking booking = Booking.builder().id(1L).item(item).status(BookingStatus.WAITING).build();
+        when(bookingRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(booking));
+
+        List<BookingDecisionResultDto> results = bookingService.updateBookings(ownerId,
+                List.of(new BookingDecisionDto(1L, true)));
+
+        assertNull(results.get(0).getStatus());
+        assertNotNull(results.get(0).getError());
+        verify(bookingRepository, never()).updateStatuses(any(), any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -176,7 +386,6 @@ class BookingServiceImplTest {
         Item item = Item.builder().ownerId(11L).build();
         Booking booking = Booking.builder().booker(booker).item(item).build();
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userService.getUser(userId)).thenReturn(booker);
 
         Booking bookingByUserId = bookingService.getBookingByUserId(bookingId, userId);
 
@@ -191,8 +400,6 @@ class BookingServiceImplTest {
         Item item = Item.builder().id(1L).ownerId(1L).build();
         Booking booking = Booking.builder().id(bookingId).booker(booker).item(item).build();
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        User user = User.builder().id(userId).build();
-        when(userService.getUser(userId)).thenReturn(user);
 
         assertThrows(ResourceNotFoundException.class,
                 () -> bookingService.getBookingByUserId(bookingId, userId));
@@ -204,8 +411,6 @@ class BookingServiceImplTest {
         String state = "Incorrect";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(userId)).thenReturn(user);
 
         assertThrows(ResourceValidationException.class,
                 () -> bookingService.getAllUserBookingsByState(userId, state, from, size));
@@ -217,13 +422,11 @@ class BookingServiceImplTest {
         String state = "ALL";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(userId)).thenReturn(user);
         Pageable page = Util.page(from, size);
 
         bookingService.getAllUserBookingsByState(userId, state, from, size);
 
-        verify(bookingRepository).findByBookerIdOrderByStartDesc(userId, page);
+        verify(bookingRepository).findByBookerIdOrderByStartDescIdDesc(userId, page);
     }
 
     @Test
@@ -232,13 +435,11 @@ class BookingServiceImplTest {
         String state = "CURRENT";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(userId)).thenReturn(user);
 
         bookingService.getAllUserBookingsByState(userId, state, from, size);
 
         verify(bookingRepository)
-                .findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(anyLong(),
+                .findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any(),
                         any());
@@ -250,13 +451,11 @@ class BookingServiceImplTest {
         String state = "FUTURE";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(userId)).thenReturn(user);
 
         bookingService.getAllUserBookingsByState(userId, state, from, size);
 
         verify(bookingRepository)
-                .findByBookerIdAndStartAfterOrderByStartDesc(anyLong(),
+                .findByBookerIdAndStartAfterOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any());
     }
@@ -267,13 +466,11 @@ class BookingServiceImplTest {
         String state = "PAST";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(userId)).thenReturn(user);
 
         bookingService.getAllUserBookingsByState(userId, state, from, size);
 
         verify(bookingRepository)
-                .findByBookerIdAndEndBeforeOrderByStartDesc(anyLong(),
+                .findByBookerIdAndEndBeforeOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any());
     }
@@ -284,13 +481,11 @@ class BookingServiceImplTest {
         String state = "WAITING";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(userId)).thenReturn(user);
 
         bookingService.getAllUserBookingsByState(userId, state, from, size);
 
         verify(bookingRepository)
-                .findByBookerIdAndStatusOrderByStartDesc(anyLong(),
+                .findByBookerIdAndStatusOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any());
     }
@@ -301,13 +496,11 @@ class BookingServiceImplTest {
         String state = "REJECTED";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(userId)).thenReturn(user);
 
         bookingService.getAllUserBookingsByState(userId, state, from, size);
 
         verify(bookingRepository)
-                .findByBookerIdAndStatusOrderByStartDesc(anyLong(),
+                .findByBookerIdAndStatusOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any());
     }
@@ -318,8 +511,6 @@ class BookingServiceImplTest {
         String state = "Incorrect";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(ownerId)).thenReturn(user);
 
         assertThrows(ResourceValidationException.class,
                 () -> bookingService.getAllOwnerBookingsByState(ownerId, state, from, size));
@@ -331,13 +522,11 @@ class BookingServiceImplTest {
         String state = "ALL";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(ownerId)).thenReturn(user);
         Pageable page = Util.page(from, size);
 
         bookingService.getAllOwnerBookingsByState(ownerId, state, from, size);
 
-        verify(bookingRepository).findByItemOwnerIdOrderByStartDesc(ownerId, page);
+        verify(bookingRepository).findByItemOwnerIdOrderByStartDescIdDesc(ownerId, page);
     }
 
     @Test
@@ -346,13 +535,11 @@ class BookingServiceImplTest {
         String state = "CURRENT";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(ownerId)).thenReturn(user);
 
         bookingService.getAllOwnerBookingsByState(ownerId, state, from, size);
 
         verify(bookingRepository)
-                .findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(anyLong(),
+                .findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any(),
                         any());
@@ -364,13 +551,11 @@ class BookingServiceImplTest {
         String state = "FUTURE";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(ownerId)).thenReturn(user);
 
         bookingService.getAllOwnerBookingsByState(ownerId, state, from, size);
 
         verify(bookingRepository)
-                .findByItemOwnerIdAndStartAfterOrderByStartDesc(anyLong(),
+                .findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any());
     }
@@ -381,13 +566,11 @@ class BookingServiceImplTest {
         String state = "PAST";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(ownerId)).thenReturn(user);
 
         bookingService.getAllOwnerBookingsByState(ownerId, state, from, size);
 
         verify(bookingRepository)
-                .findByItemOwnerIdAndEndBeforeOrderByStartDesc(anyLong(),
+                .findByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any());
     }
@@ -398,13 +581,11 @@ class BookingServiceImplTest {
         String state = "WAITING";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(ownerId)).thenReturn(user);
 
         bookingService.getAllOwnerBookingsByState(ownerId, state, from, size);
 
         verify(bookingRepository)
-                .findByItemOwnerIdAndStatusOrderByStartDesc(anyLong(),
+                .findByItemOwnerIdAndStatusOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any());
     }
@@ -415,84 +596,246 @@ class BookingServiceImplTest {
         String state = "REJECTED";
         Integer from = 0;
         Integer size = 10;
-        User user = new User();
-        when(userService.getUser(ownerId)).thenReturn(user);
 
         bookingService.getAllOwnerBookingsByState(ownerId, state, from, size);
 
         verify(bookingRepository)
-                .findByItemOwnerIdAndStatusOrderByStartDesc(anyLong(),
+                .findByItemOwnerIdAndStatusOrderByStartDescIdDesc(anyLong(),
                         any(),
                         any());
     }
 
+    @Test
+    void exportOwnerBookings_whenOwnerFound_thenBookingsReadOnlyWhenExportWritten() throws Exception {
+        Long ownerId = 0L;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        BookingExport export = bookingService.exportOwnerBookings(ownerId, BookingExportFormat.CSV);
+
+        verify(userService).checkUserExists(ownerId);
+        verifyNoInteractions(bookingExporter);
+        export.writeTo(out);
+        verify(bookingExporter).writeOwnerBookings(ownerId, BookingExportFormat.CSV, out);
+    }
+
+    @Test
+    void exportOwnerBookings_whenOwnerNotFound_thenNotFoundExceptionThrownBeforeExport() {
+        Long ownerId = 0L;
+        doThrow(ResourceNotFoundException.class).when(userService).checkUserExists(ownerId);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> bookingService.exportOwnerBookings(ownerId, BookingExportFormat.NDJSON));
+
+        verifyNoInteractions(bookingExporter);
+    }
+
     @Test
     void getLastBooking_whenInvoked_thenReturnLastBooking() {
         Long itemId = 0L;
         LocalDateTime past = Util.now().minusDays(2);
-        LocalDateTime future = Util.now().plusDays(2);
-        User booker1 = new User();
-        Booking lastBooking = Booking.builder()
-                .booker(booker1)
+        ShortBookingDto lastBookingDto = ShortBookingDto.builder()
+                .id(1L)
+                .bookerId(1L)
                 .start(past.minusHours(1))
                 .end(past.plusHours(1))
                 .build();
-        User booker2 = new User();
-        Booking nextBooking = Booking.builder()
-                .booker(booker2)
-                .start(future.minusHours(1))
-                .end(future.plusHours(1))
-                .build();
-        ShortBookingDto lastBookingDto = BookingMapper.toShortBookingDto(lastBooking);
-        List<Booking> bookings = List.of(lastBooking, nextBooking);
-        Item item = new Item();
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingService.getAllByItemIdAndStatus(anyLong(), BookingStatus.APPROVED)).thenReturn(bookings);
+        when(bookingRepository.findLastBooking(eq(itemId), eq(BookingStatus.APPROVED), any(), eq(Util.page(0, 1))))
+                .thenReturn(List.of(lastBookingDto));
 
         ShortBookingDto actualBookingDto = bookingService.getLastBooking(itemId);
 
         assertEquals(lastBookingDto, actualBookingDto);
     }
 
+    @Test
+    void getLastBooking_whenNoBookings_thenReturnNull() {
+        Long itemId = 0L;
+        when(bookingRepository.findLastBooking(eq(itemId), eq(BookingStatus.APPROVED), any(), any()))
+                .thenReturn(List.of());
+
+        ShortBookingDto actualBookingDto = bookingService.getLastBooking(itemId);
+
+        assertNull(actualBookingDto);
+    }
+
     @Test
     void getNextBooking_whenInvoked_thenReturnNextBooking() {
         Long itemId = 0L;
-        LocalDateTime past = Util.now().minusDays(2);
         LocalDateTime future = Util.now().plusDays(2);
-        User booker1 = new User();
-        Booking lastBooking = Booking.builder()
-                .booker(booker1)
-                .start(past.minusHours(1))
-                .end(past.plusHours(1))
-                .build();
-        User booker2 = new User();
-        Booking nextBooking = Booking.builder()
-                .booker(booker2)
+        ShortBookingDto nextBookingDto = ShortBookingDto.builder()
+                .id(2L)
+                .bookerId(2L)
                 .start(future.minusHours(1))
                 .end(future.plusHours(1))
                 .build();
-        ShortBookingDto nextBookingDto = BookingMapper.toShortBookingDto(nextBooking);
-        List<Booking> bookings = List.of(lastBooking, nextBooking);
-        Item item = new Item();
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingService.getAllByItemIdAndStatus(anyLong(), BookingStatus.APPROVED)).thenReturn(bookings);
+        when(bookingRepository.findNextBooking(eq(itemId), eq(BookingStatus.APPROVED), any(), eq(Util.page(0, 1))))
+                .thenReturn(List.of(nextBookingDto));
 
         ShortBookingDto actualBookingDto = bookingService.getNextBooking(itemId);
 
         assertEquals(nextBookingDto, actualBookingDto);
+        verify(itemRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getLastBookings_whenInvoked_thenReturnLastBookingsByItemId() {
+        Long itemId = 1L;
+        Item item = Item.builder().id(itemId).build();
+        User booker = User.builder().id(2L).build();
+        Booking lastBooking = Booking.builder()
+                .id(3L)
+                .item(item)
+                .booker(booker)
+                .start(Util.now().minusDays(2))
+                .end(Util.now().minusDays(1))
+                .build();
+        List<Long> itemIds = List.of(itemId);
+        when(bookingRepository.findLastBookingsByItemIds(eq(itemIds), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(lastBooking));
+
+        Map<Long, ShortBookingDto> actualBookings = bookingService.getLastBookings(itemIds);
+
+        assertEquals(Map.of(itemId, BookingMapper.toShortBookingDto(lastBooking)), actualBookings);
+    }
+
+    @Test
+    void getNextBookings_whenInvoked_thenReturnNextBookingsByItemId() {
+        Long itemId = 1L;
+        Item item = Item.builder().id(itemId).build();
+        User booker = User.builder().id(2L).build();
+        Booking nextBooking = Booking.builder()
+                .id(3L)
+                .item(item)
+                .booker(booker)
+                .start(Util.now().plusDays(1))
+                .end(Util.now().plusDays(2))
+                .build();
+        List<Long> itemIds = List.of(itemId);
+        when(bookingRepository.findNextBookingsByItemIds(eq(itemIds), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(nextBooking));
+
+        Map<Long, ShortBookingDto> actualBookings = bookingService.getNextBookings(itemIds);
+
+        assertEquals(Map.of(itemId, BookingMapper.toShortBookingDto(nextBooking)), actualBookings);
+    }
+
+    @Test
+    void getLastBookings_whenItemIdsEmpty_thenRepositoryNeverCalled() {
+        Map<Long, ShortBookingDto> actualBookings = bookingService.getLastBookings(List.of());
+
+        assertTrue(actualBookings.isEmpty());
+        verify(bookingRepository, never()).findLastBookingsByItemIds(any(), any(), any());
     }
 
     @Test
     void getPastUserBookings_whenInvoked_thenRepositoryMethodCalled() {
         Long itemId = 0L;
         Long userId = 0L;
-        Item item = new Item();
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        User user = new User();
-        when(userService.getUser(userId)).thenReturn(user);
+        when(itemRepository.existsById(itemId)).thenReturn(true);
 
         bookingService.getPastUserBookings(itemId, userId);
 
+        verify(userService).checkUserExists(userId);
         verify(bookingRepository).findByItemIdAndBookerIdAndEndBefore(anyLong(), anyLong(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllByItemIdAndStatus_whenItemNotFound_thenNotFoundExceptionThrown() {
+        Long itemId = 0L;
+        when(itemRepository.existsById(itemId)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> bookingService.getAllByItemIdAndStatus(itemId, BookingStatus.APPROVED));
+
+        verify(itemRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).findByItemIdAndStatus(anyLong(), any());
+    }
+
+    @Test
+    void getItemAvailability_whenWindowIsCorrect_thenReturnSlotsFromCache() {
+        Long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(90);
+        List<AvailabilitySlotDto> slots = List.of(new AvailabilitySlotDto(from, to, true));
+        when(itemAvailabilityCache.getSlots(List.of(itemId), from, to)).thenReturn(Map.of(itemId, slots));
+
+        ItemAvailabilityDto actual = bookingService.getItemAvailability(itemId, from, to);
+
+        assertEquals(new ItemAvailabilityDto(itemId, from, slots), actual);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getItemAvailability_whenItemNotFound_thenNotFoundExceptionThrown() {
+        Long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(itemAvailabilityCache.getSlots(List.of(itemId), from, from.plusDays(1))).thenReturn(Map.of());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> bookingService.getItemAvailability(itemId, from, from.plusDays(1)));
+    }
+
+    @Test
+    void getItemsAvailability_whenInvoked_thenReturnAvailabilityInRequestedOrderWithNextFreeDate() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        List<AvailabilitySlotDto> busyFirst = List.of(
+                new AvailabilitySlotDto(from, from.plusDays(2), false),
+                new AvailabilitySlotDto(from.plusDays(2), to, true));
+        List<AvailabilitySlotDto> busyAll = List.of(new AvailabilitySlotDto(from, to, false));
+        List<Long> itemIds = List.of(2L, 1L, 2L);
+        when(itemAvailabilityCache.getSlots(itemIds, from, to)).thenReturn(Map.of(1L, busyAll, 2L, busyFirst));
+
+        List<ItemAvailabilityDto> actual = bookingService.getItemsAvailability(itemIds, from, to);
+
+        assertEquals(List.of(
+                new ItemAvailabilityDto(2L, from.plusDays(2), busyFirst),
+                new ItemAvailabilityDto(1L, null, busyAll)), actual);
+    }
+
+    @Test
+    void getItemAvailability_whenWindowStartNotBeforeEnd_thenValidationExceptionThrown() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(ResourceValidationException.class,
+                () -> bookingService.getItemAvailability(1L, from, from));
+
+        verifyNoInteractions(itemAvailabilityCache);
+    }
+
+    @Test
+    void getItemAvailability_whenWindowTooLong_thenValidationExceptionThrown() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(ResourceValidationException.class,
+                () -> bookingService.getItemAvailability(1L, from, from.plusYears(2)));
+
+        verifyNoInteractions(itemAvailabilityCache);
+    }
+
+    @Test
+    void getUserBookingsETag_whenBookingListChanged_thenETagChanged() {
+        Long userId = 0L;
+        LocalDateTime time = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(bookingRepository.getVersionByBookerId(eq(userId), any()))
+                .thenReturn(new BookingListVersionDto(1L, time, time, time, 0L, 0L))
+                .thenReturn(new BookingListVersionDto(1L, time, time, time, 0L, 0L))
+                .thenReturn(new BookingListVersionDto(1L, time.plusSeconds(1), time, time, 0L, 0L));
+
+        String first = bookingService.getUserBookingsETag(userId, "ALL");
+        String same = bookingService.getUserBookingsETag(userId, "ALL");
+        String changed = bookingService.getUserBookingsETag(userId, "ALL");
+
+        assertTrue(first.startsWith("W/\""));
+        assertEquals(first, same);
+        assertNotEquals(first, changed);
+    }
+
+    @Test
+    void getOwnerBookingsETag_whenStateUnknown_thenValidationExceptionThrown() {
+        assertThrows(ResourceValidationException.class,
+                () -> bookingService.getOwnerBookingsETag(0L, "UNKNOWN"));
+
+        verify(bookingRepository, never()).getVersionByItemOwnerId(any(), any());
+    }
+}
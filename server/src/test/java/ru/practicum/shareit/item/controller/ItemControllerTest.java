@@ -8,16 +8,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.OwnerItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.util.Header;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +30,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
@@ -77,7 +83,33 @@ class ItemControllerTest {
                 .getResponse()
                 .getContentAsString();
 
-        assertEquals(mapper.writeValueAsString(item), result);
+        assertEquals(mapper.writeValueAsString(ItemMapper.toItemDto(item)), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void postItems_whenInvoked_thenStatusIsOkAndItemDtosReturned() {
+        ItemDto dto = ItemDto.builder()
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .build();
+        Long ownerId = 0L;
+        when(itemService.addItems(anyList(), eq(ownerId))).thenReturn(List.of(item));
+
+        String result = mvc.perform(post("/items/batch")
+                        .content(mapper.writeValueAsString(List.of(dto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Header.USER_ID, ownerId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(mapper.writeValueAsString(List.of(ItemMapper.toItemDto(item))), result);
+        verify(itemService, never()).addItem(any(), anyLong());
     }
 
     @SneakyThrows
@@ -112,6 +144,23 @@ class ItemControllerTest {
         verify(itemService).getAllItems(userId, from, size);
     }
 
+    @SneakyThrows
+    @Test
+    void getAllItems_whenIfNoneMatchEqualsETag_thenNotModifiedAndItemsNotLoaded() {
+        Long userId = 0L;
+        String eTag = "W/\"1\"";
+        when(itemService.getAllItemsETag(userId)).thenReturn(eTag);
+
+        mvc.perform(get("/items")
+                        .header(Header.USER_ID, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .param("size", "10"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        verify(itemService, never()).getAllItems(any(), any(), any());
+    }
+
     @SneakyThrows
     @Test
     void patchItem_whenInvoked_thenStatusIsOkAndServiceMethodCalled() {
@@ -138,7 +187,7 @@ class ItemControllerTest {
                 .getResponse()
                 .getContentAsString();
 
-        assertEquals(mapper.writeValueAsString(item), result);
+        assertEquals(mapper.writeValueAsString(ItemMapper.toItemDto(item)), result);
     }
 
     @SneakyThrows
@@ -195,4 +244,51 @@ class ItemControllerTest {
         assertEquals(mapper.writeValueAsString(commentDto), result);
     }
 
-}
\ No newline at end of file
+    @SneakyThrows
+    @Test
+    void getItemAvailability_whenInvoked_thenStatusIsOkAndSlotsReturned() {
+        Long itemId = 0L;
+        Long userId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(90);
+        ItemAvailabilityDto availability = new ItemAvailabilityDto(itemId, from,
+                List.of(new AvailabilitySlotDto(from, to, true)));
+        when(itemService.getItemAvailability(itemId, userId, from, to)).thenReturn(availability);
+
+        String result = mvc.perform(get("/items/{itemId}/availability", itemId)
+                        .header(Header.USER_ID, userId)
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(mapper.writeValueAsString(availability), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemsAvailability_whenInvoked_thenStatusIsOkAndServiceMethodCalledWithAllIds() {
+        Long userId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(90);
+        List<ItemAvailabilityDto> availability = List.of(
+                new ItemAvailabilityDto(1L, from, List.of(new AvailabilitySlotDto(from, to, true))),
+                new ItemAvailabilityDto(2L, null, List.of(new AvailabilitySlotDto(from, to, false))));
+        when(itemService.getItemsAvailability(List.of(1L, 2L), userId, from, to)).thenReturn(availability);
+
+        String result = mvc.perform(get("/items/availability")
+                        .header(Header.USER_ID, userId)
+                        .param("itemIds", "1,2")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(mapper.writeValueAsString(availability), result);
+    }
+
+}
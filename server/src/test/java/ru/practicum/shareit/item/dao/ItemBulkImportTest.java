@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.dao;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemBulkImportTest {
+    private static final int ITEMS_COUNT = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+
+    // замер скорости импорта: вставки группируются в пакеты по BATCH_SIZE строк,
+    // а идентификаторы берутся из последовательности одним запросом на пакет
+    @Test
+    void saveAll_whenBulkImport_thenInsertsBatchedAndIdsPooled() {
+        User owner = userRepository.save(User.builder().name("partner").email("partner@email.com").build());
+        List<Item> items = IntStream.range(0, ITEMS_COUNT)
+                .mapToObj(i -> Item.builder()
+                        .name("item " + i)
+                        .description("description " + i)
+                        .available(true)
+                        .ownerId(owner.getId())
+                        .build())
+                .collect(Collectors.toList());
+        entityManager.flush();
+        statistics().clear();
+
+        long started = System.nanoTime();
+        itemRepository.saveAll(items);
+        entityManager.flush();
+        long elapsed = System.nanoTime() - started;
+
+        log.info("Импорт {} вещей: {} мс, {} строк/с, подготовлено запросов: {}", ITEMS_COUNT,
+                elapsed / 1_000_000, ITEMS_COUNT * 1_000_000_000L / elapsed, statistics().getPrepareStatementCount());
+        assertEquals(ITEMS_COUNT, statistics().getEntityInsertCount());
+        // по запросу вставки и запросу к последовательности на пакет; без пакетов - запрос на каждую строку
+        assertTrue(statistics().getPrepareStatementCount() < 3L * ITEMS_COUNT / BATCH_SIZE,
+                () -> "prepared statements: " + statistics().getPrepareStatementCount());
+        assertEquals(ITEMS_COUNT, items.stream().map(Item::getId).distinct().count());
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDetailsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.Util;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemRepositoryTest {
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(
+                User.builder()
+                        .name("name")
+                        .email("user@email.com")
+                        .build());
+
+        item = itemRepository.save(Item.builder()
+                .name("item name")
+                .description("item dEscription")
+                .available(true)
+                .ownerId(owner.getId())
+                .requestId(1L)
+                .build());
+
+        itemRepository.save(Item.builder()
+                .name("item2 name")
+                .description("item2 description")
+                .available(false)
+                .ownerId(owner.getId())
+                .requestId(1L)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void search() {
+        String text = "descriptioN";
+        Pageable pageable = Util.page(0, 10);
+        List<Item> items = itemRepository.search(text, pageable);
+
+        assertEquals(1, items.size());
+        assertEquals("item name", items.get(0).getName());
+    }
+
+    @Test
+    void findDetailsById_whenOwner_thenLastAndNextApprovedBookingsInSingleStatement() {
+        LocalDateTime now = Util.now();
+        User booker = userRepository.save(User.builder().name("booker").email("booker@email.com").build());
+        Booking last = saveBooking(booker, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        saveBooking(booker, now.minusDays(5), now.minusDays(4), BookingStatus.APPROVED);
+        saveBooking(booker, now.minusDays(2), now.minusDays(1), BookingStatus.REJECTED);
+        Booking next = saveBooking(booker, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        saveBooking(booker, now.plusDays(3), now.plusDays(4), BookingStatus.APPROVED);
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+
+        List<ItemDetailsDto> details = itemRepository.findDetailsById(item.getId(), owner.getId(),
+                BookingStatus.APPROVED, now);
+
+        assertEquals(1, details.size());
+        assertEquals("item name", details.get(0).getName());
+        assertEquals(last.getId(), details.get(0).getLastBookingId());
+        assertEquals(booker.getId(), details.get(0).getLastBookerId());
+        assertEquals(next.getId(), details.get(0).getNextBookingId());
+        assertEquals(booker.getId(), details.get(0).getNextBookerId());
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void findDetailsById_whenNotOwner_thenItemWithoutBookings() {
+        LocalDateTime now = Util.now();
+        User booker = userRepository.save(User.builder().name("booker").email("booker@email.com").build());
+        saveBooking(booker, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        saveBooking(booker, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+
+        List<ItemDetailsDto> details = itemRepository.findDetailsById(item.getId(), booker.getId(),
+                BookingStatus.APPROVED, now);
+
+        assertEquals(1, details.size());
+        assertNull(details.get(0).getLastBookingId());
+        assertNull(details.get(0).getNextBookingId());
+    }
+
+    @Test
+    void findDetailsById_whenItemNotFound_thenEmpty() {
+        assertTrue(itemRepository.findDetailsById(item.getId() + 100, owner.getId(), BookingStatus.APPROVED,
+                Util.now()).isEmpty());
+    }
+
+    private Booking saveBooking(User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.Util;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private InMemoryItemSearchEngine searchEngine;
+
+    private final Item drill = item(1L, "Дрель", "Дрель аккумуляторная", 1L);
+    private final Item screwdriver = item(2L, "Отвёртка", "Аккумуляторная отвёртка", 1L);
+    private final Item saw = item(3L, "Пила", "Ручная пила", 2L);
+
+    @Test
+    void search_whenIndexNotWarmedUp_thenDelegateToRepository() {
+        when(itemRepository.search("дрель", Util.page(0, 10))).thenReturn(List.of(drill));
+
+        List<Item> actual = searchEngine.search("дрель", Util.page(0, 10));
+
+        assertEquals(List.of(drill), actual);
+    }
+
+    @Test
+    void search_whenSubstringInNameOrDescription_thenReturnMatchingItemsOrderedById() {
+        warmUp(saw, screwdriver, drill);
+
+        List<Item> actual = searchEngine.search("АККУМ", Util.page(0, 10));
+
+        assertEquals(List.of(1L, 2L), ids(actual));
+        verify(itemRepository, never()).search(any(), any());
+    }
+
+    @Test
+    void search_whenQueryShorterThanGram_thenScanIndexedItems() {
+        warmUp(drill, screwdriver, saw);
+
+        List<Item> actual = searchEngine.search("ил", Util.page(0, 10));
+
+        assertEquals(List.of(3L), ids(actual));
+    }
+
+    @Test
+    void search_whenPaged_thenSkipFirstPages() {
+        warmUp(drill, screwdriver, saw);
+
+        List<Item> actual = searchEngine.search("а", Util.page(1, 1));
+
+        assertEquals(List.of(2L), ids(actual));
+    }
+
+    @Test
+    void index_whenItemBecomesUnavailable_thenRemovedFromIndex() {
+        warmUp(drill, screwdriver);
+
+        searchEngine.index(drill.toBuilder().available(false).build());
+
+        assertEquals(List.of(2L), ids(searchEngine.search("аккум", Util.page(0, 10))));
+    }
+
+    @Test
+    void index_whenTextChanged_thenOldTextNoLongerMatches() {
+        warmUp(drill);
+
+        searchEngine.index(drill.toBuilder().name("Перфоратор").description("Ударный").build());
+
+        assertTrue(searchEngine.search("дрель", Util.page(0, 10)).isEmpty());
+        assertEquals(List.of(1L), ids(searchEngine.search("удар", Util.page(0, 10))));
+    }
+
+    @Test
+    void remove_whenItemDeleted_thenRemovedFromIndex() {
+        warmUp(drill, screwdriver);
+
+        searchEngine.remove(1L);
+
+        assertEquals(List.of(2L), ids(searchEngine.search("аккум", Util.page(0, 10))));
+    }
+
+    @Test
+    void removeByOwner_whenUserDeleted_thenOwnerItemsRemovedFromIndex() {
+        warmUp(drill, screwdriver, saw);
+
+        searchEngine.removeByOwner(1L);
+
+        assertEquals(List.of(3L), ids(searchEngine.search("а", Util.page(0, 10))));
+    }
+
+    @Test
+    void warmUp_whenItemChangedDuringWarmUp_thenEventStateKept() {
+        searchEngine.remove(1L);
+
+        warmUp(drill, screwdriver);
+
+        assertEquals(List.of(2L), ids(searchEngine.search("аккум", Util.page(0, 10))));
+    }
+
+    private void warmUp(Item... items) {
+        when(itemRepository.streamAllByAvailableTrue()).thenReturn(Stream.of(items));
+        searchEngine.warmUp();
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+
+    private static Item item(Long id, String name, String description, Long ownerId) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(true)
+                .ownerId(ownerId)
+                .build();
+    }
+}
@@ -4,8 +4,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.booking.dto.ShortBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.PermissionDeniedException;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
@@ -14,10 +18,14 @@ import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDetailsDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.OwnerItemDto;
+import ru.practicum.shareit.item.event.ItemDeletedEvent;
+import ru.practicum.shareit.item.event.ItemSavedEvent;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.util.Util;
@@ -26,6 +34,7 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,6 +51,10 @@ class ItemServiceImplTest {
     private UserService userService;
     @Mock
     private BookingService bookingService;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ItemServiceImpl itemService;
@@ -52,9 +65,7 @@ class ItemServiceImplTest {
     @Test
     void addItem_whenOwnerFound_thenReturnSavedItemWithOwnerId() {
         Long ownerId = 0L;
-        User owner = new User();
         Item item = new Item();
-        when(userService.getUser(ownerId)).thenReturn(owner);
 
         itemService.addItem(item, ownerId);
 
@@ -62,13 +73,14 @@ class ItemServiceImplTest {
         Item savedItem = itemArgumentCaptor.getValue();
 
         assertEquals(ownerId, savedItem.getOwnerId());
+        verify(eventPublisher).publishEvent(any(ItemSavedEvent.class));
     }
 
     @Test
     void addItem_whenOwnerNotFound_thenNotFoundExceptionThrown() {
         Long ownerId = 0L;
         Item item = new Item();
-        when(userService.getUser(ownerId)).thenThrow(ResourceNotFoundException.class);
+        doThrow(ResourceNotFoundException.class).when(userService).checkUserExists(ownerId);
 
         assertThrows(ResourceNotFoundException.class,
                 () -> itemService.addItem(item, ownerId));
@@ -77,25 +89,69 @@ class ItemServiceImplTest {
     }
 
     @Test
-    void getItem_whenItemFound_thenReturnItem() {
+    @SuppressWarnings("unchecked")
+    void addItems_whenOwnerFound_thenAllItemsSavedWithOwnerIdInOneCallAndIndexed() {
+        Long ownerId = 0L;
+        List<Item> items = List.of(Item.builder().name("first").build(), Item.builder().name("second").build());
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<List<Item>> itemsCaptor = ArgumentCaptor.forClass(List.class);
+
+        List<Item> savedItems = itemService.addItems(items, ownerId);
+
+        verify(itemRepository).saveAll(itemsCaptor.capture());
+        assertEquals(2, itemsCaptor.getValue().size());
+        assertTrue(itemsCaptor.getValue().stream().allMatch(item -> ownerId.equals(item.getOwnerId())));
+        assertEquals(itemsCaptor.getValue(), savedItems);
+        verify(eventPublisher, times(2)).publishEvent(any(ItemSavedEvent.class));
+    }
+
+    @Test
+    void addItems_whenOwnerNotFound_thenNotFoundExceptionThrown() {
+        Long ownerId = 0L;
+        List<Item> items = List.of(new Item());
+        doThrow(ResourceNotFoundException.class).when(userService).checkUserExists(ownerId);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> itemService.addItems(items, ownerId));
+
+        verify(itemRepository, never()).saveAll(anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void getItem_whenItemFound_thenReturnItemWithBookingsAndComments() {
         Long itemId = 0L;
         Long userId = 0L;
-        Item item = Item.builder().ownerId(userId).build();
-        User user = new User();
-        OwnerItemDto ownerItemDto = ItemMapper.toOwnerItemDto(item, null, null, List.of());
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(userService.getUser(userId)).thenReturn(user);
+        LocalDateTime now = Util.now();
+        ItemDetailsDto item = ItemDetailsDto.builder()
+                .id(itemId)
+                .lastBookingId(1L)
+                .lastBookerId(2L)
+                .lastBookingStart(now.minusDays(2))
+                .lastBookingEnd(now.minusDays(1))
+                .build();
+        Comment comment = Comment.builder()
+                .item(Item.builder().id(itemId).build())
+                .author(User.builder().name("author").build())
+                .build();
+        when(itemRepository.findDetailsById(eq(itemId), eq(userId), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(item));
+        when(commentRepository.findAllByItemId(itemId)).thenReturn(List.of(comment));
 
         OwnerItemDto actualItemDto = itemService.getItem(itemId, userId);
 
-        assertEquals(ownerItemDto, actualItemDto);
+        assertEquals(new ShortBookingDto(1L, 2L, now.minusDays(2), now.minusDays(1)), actualItemDto.getLastBooking());
+        assertNull(actualItemDto.getNextBooking());
+        assertEquals(List.of(CommentMapper.toCommentDto(comment)), actualItemDto.getComments());
+        verifyNoInteractions(bookingService);
     }
 
     @Test
     void getItem_whenItemNotFound_thenNotFoundExceptionThrown() {
         Long itemId = 0L;
         Long userId = 0L;
-        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findDetailsById(eq(itemId), eq(userId), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> itemService.getItem(itemId, userId));
@@ -118,6 +174,27 @@ class ItemServiceImplTest {
         assertEquals(dto, actualDto);
     }
 
+    @Test
+    void getAllItems_whenItemsHaveBookings_thenBookingsResolvedInBulk() {
+        Long ownerId = 0L;
+        Integer from = 0;
+        Integer size = 10;
+        Item item = Item.builder().id(1L).ownerId(ownerId).build();
+        ShortBookingDto lastBooking = ShortBookingDto.builder().id(1L).build();
+        ShortBookingDto nextBooking = ShortBookingDto.builder().id(2L).build();
+        List<Long> itemIds = List.of(item.getId());
+        Pageable page = Util.page(from, size);
+        when(itemRepository.findAllByOwnerIdOrderByIdAsc(ownerId, page)).thenReturn(List.of(item));
+        when(bookingService.getLastBookings(itemIds)).thenReturn(Map.of(item.getId(), lastBooking));
+        when(bookingService.getNextBookings(itemIds)).thenReturn(Map.of(item.getId(), nextBooking));
+
+        Collection<OwnerItemDto> actualDto = itemService.getAllItems(ownerId, from, size);
+
+        assertEquals(List.of(ItemMapper.toOwnerItemDto(item, lastBooking, nextBooking, List.of())), actualDto);
+        verify(bookingService, never()).getLastBooking(anyLong());
+        verify(bookingService, never()).getNextBooking(anyLong());
+    }
+
     @Test
     void updateItem_whenItemNotFound_thenNotFoundExceptionThrown() {
         Long itemId = 0L;
@@ -211,6 +288,7 @@ class ItemServiceImplTest {
         itemService.deleteItem(itemId, ownerId);
 
         verify(itemRepository).deleteById(itemId);
+        verify(eventPublisher).publishEvent(new ItemDeletedEvent(itemId));
     }
 
     @Test
@@ -223,6 +301,7 @@ class ItemServiceImplTest {
                 () -> itemService.deleteItem(itemId, ownerId));
 
         verify(itemRepository, never()).deleteById(itemId);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -233,7 +312,7 @@ class ItemServiceImplTest {
         Item item = Item.builder().name("whatever name").build();
         List<Item> expectedList = List.of(item);
         Pageable page = Util.page(from, size);
-        when(itemRepository.search(text, page)).thenReturn(expectedList);
+        when(itemSearchEngine.search(text, page)).thenReturn(expectedList);
 
         Collection<Item> foundItems = itemService.searchItems(text, from, size);
 
@@ -248,7 +327,7 @@ class ItemServiceImplTest {
         Item item = Item.builder().name("whatever name").build();
         List<Item> expectedList = List.of(item);
         Pageable page = Util.page(from, size);
-        when(itemRepository.search(text, page)).thenReturn(expectedList);
+        when(itemSearchEngine.search(text, page)).thenReturn(expectedList);
 
         Collection<Item> foundItems = itemService.searchItems(text, from, size);
 
@@ -266,7 +345,7 @@ class ItemServiceImplTest {
         Collection<Item> foundItems = itemService.searchItems(text, from, size);
 
         assertEquals(expectedList, foundItems);
-        verify(itemRepository, never()).search(text, page);
+        verify(itemSearchEngine, never()).search(text, page);
     }
 
     @Test
@@ -329,4 +408,29 @@ class ItemServiceImplTest {
 
         verify(commentRepository, never()).save(comment);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemAvailability_whenInvoked_thenDelegateToBookingService() {
+        Long itemId = 1L;
+        Long userId = 2L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(90);
+        ItemAvailabilityDto availability = new ItemAvailabilityDto(itemId, from, List.of());
+        when(bookingService.getItemAvailability(itemId, from, to)).thenReturn(availability);
+
+        ItemAvailabilityDto actual = itemService.getItemAvailability(itemId, userId, from, to);
+
+        assertEquals(availability, actual);
+        verify(userService).checkUserExists(userId);
+    }
+
+    @Test
+    void getItemsAvailability_whenItemIdsEmpty_thenReturnEmptyListWithoutBookingService() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        List<ItemAvailabilityDto> actual = itemService.getItemsAvailability(List.of(), 2L, from, from.plusDays(1));
+
+        assertTrue(actual.isEmpty());
+        verifyNoInteractions(bookingService);
+    }
+}
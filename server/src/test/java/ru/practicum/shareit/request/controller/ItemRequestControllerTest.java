@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -113,6 +114,21 @@ class ItemRequestControllerTest {
         verify(itemRequestService).getRequestsByUserId(userId);
     }
 
+    @SneakyThrows
+    @Test
+    void getRequestsByUser_whenIfNoneMatchEqualsETag_thenNotModifiedAndRequestsNotLoaded() {
+        Long userId = 0L;
+        String eTag = "W/\"1\"";
+        when(itemRequestService.getRequestsByUserIdETag(userId)).thenReturn(eTag);
+
+        mvc.perform(get("/requests")
+                        .header(Header.USER_ID, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        verify(itemRequestService, never()).getRequestsByUserId(userId);
+    }
+
     @SneakyThrows
     @Test
     void getAllRequests_whenInvoked_thenStatusIsOkAndServiceMethodCalled() {
@@ -57,14 +57,12 @@ class ItemRequestServiceImplTest {
         Integer size = 10;
         Long userId = 0L;
         Pageable page = Util.page(from, size);
-        User user = new User();
         Item item = Item.builder().requestId(0L).build();
         ItemDtoForRequest itemDtoForRequest = ItemDtoForRequest.builder().requestId(0L).build();
         ItemRequestDtoWithItems dto1 = ItemRequestDtoWithItems.builder().id(0L).items(List.of(itemDtoForRequest)).build();
         List<ItemRequestDtoWithItems> expectedDtos = List.of(dto1);
-        when(userService.getUser(anyLong())).thenReturn(user);
         ItemRequest request1 = ItemRequest.builder().id(0L).build();
-        when(requestRepository.findAllByRequesterIdNotOrderByCreatedDesc(userId, page))
+        when(requestRepository.findAllByRequesterIdNotOrderByCreatedDescIdDesc(userId, page))
                 .thenReturn(List.of(request1));
         when(itemRepository.findAllByRequestIdIn(anySet())).thenReturn(List.of(item));
 
@@ -76,12 +74,10 @@ class ItemRequestServiceImplTest {
     @Test
     void getRequestsByUserId_whenInvoked_thenReturnItemRequestDtoWithItemsCollection() {
         Long userId = 0L;
-        User user = new User();
         Item item = Item.builder().requestId(0L).build();
         ItemDtoForRequest itemDtoForRequest = ItemDtoForRequest.builder().requestId(0L).build();
         ItemRequestDtoWithItems dto1 = ItemRequestDtoWithItems.builder().id(0L).items(List.of(itemDtoForRequest)).build();
         List<ItemRequestDtoWithItems> expectedDtos = List.of(dto1);
-        when(userService.getUser(anyLong())).thenReturn(user);
         ItemRequest request1 = ItemRequest.builder().id(0L).build();
         when(requestRepository.findAllByRequesterIdOrderByCreatedDesc(userId))
                 .thenReturn(List.of(request1));
@@ -97,12 +93,10 @@ class ItemRequestServiceImplTest {
         Long requestId = 0L;
         Long userId = 0L;
 
-        User user = new User();
         Item item = new Item();
         ItemRequest request = new ItemRequest();
         ItemDtoForRequest itemDtoForRequest = ItemDtoForRequest.builder().build();
         ItemRequestDtoWithItems expectedDto = ItemRequestDtoWithItems.builder().items(List.of(itemDtoForRequest)).build();
-        when(userService.getUser(anyLong())).thenReturn(user);
         when(requestRepository.findById(anyLong())).thenReturn(Optional.of(request));
         when(itemRepository.findAllByRequestIdIn(anySet())).thenReturn(List.of(item));
 
@@ -8,13 +8,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -67,7 +70,45 @@ class UserControllerTest {
                 .getResponse()
                 .getContentAsString();
 
-        assertEquals(mapper.writeValueAsString(user), result);
+        assertEquals(mapper.writeValueAsString(UserMapper.toUserDto(user)), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void postUser_whenEmailViolatesUniqueConstraint_thenStatusIsInternalServerError() {
+        UserDto dto = UserMapper.toUserDto(user);
+        when(userService.addUser(any())).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("Unique index or primary key violation: \"PUBLIC.CONSTRAINT_4D\"", "23505")));
+
+        mvc.perform(post("/users")
+                        .content(mapper.writeValueAsString(dto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @SneakyThrows
+    @Test
+    void postUsers_whenInvoked_thenStatusIsOkAndUserDtosReturned() {
+        UserDto dto = UserDto.builder()
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+        when(userService.addUsers(anyList())).thenReturn(List.of(user));
+
+        String result = mvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(List.of(dto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(mapper.writeValueAsString(List.of(UserMapper.toUserDto(user))), result);
+        verify(userService, never()).addUser(any());
     }
 
 //    @SneakyThrows
@@ -175,7 +216,7 @@ class UserControllerTest {
                 .getResponse()
                 .getContentAsString();
 
-        assertEquals(mapper.writeValueAsString(user), result);
+        assertEquals(mapper.writeValueAsString(UserMapper.toUserDto(user)), result);
     }
 
 //    @SneakyThrows
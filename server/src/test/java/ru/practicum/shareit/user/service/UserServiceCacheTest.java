@@ -0,0 +1,63 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfig.class, UserServiceImpl.class},
+        properties = "spring.cache.caffeine.spec=maximumSize=100,recordStats")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserServiceCacheTest {
+
+    private final UserService userService;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    void getUser_whenCalledTwice_thenRepositoryQueriedOnce() {
+        Long userId = 1L;
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User(userId, "name", "user@mail.ru", null)));
+
+        userService.getUser(userId);
+        userService.getUser(userId);
+
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void updateUser_whenInvoked_thenCachedUserEvicted() {
+        Long userId = 2L;
+        User user = new User(userId, "name", "user@mail.ru", null);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.save(any())).thenReturn(user);
+
+        userService.getUser(userId);
+        userService.updateUser(new User(null, "new name", null, null), userId);
+        userService.getUser(userId);
+
+        // второй раз пользователь читается внутри updateUser, третий - после вытеснения из кэша
+        verify(userRepository, times(3)).findById(userId);
+    }
+
+    @Test
+    void deleteUser_whenInvoked_thenCachedUserEvicted() {
+        Long userId = 3L;
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User(userId, "name", "user@mail.ru", null)));
+
+        userService.getUser(userId);
+        userService.deleteUser(userId);
+        userService.getUser(userId);
+
+        verify(userRepository, times(3)).findById(userId);
+    }
+}
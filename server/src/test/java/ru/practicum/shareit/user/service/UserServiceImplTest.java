@@ -7,8 +7,13 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
 import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Collection;
@@ -23,6 +28,12 @@ class UserServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache usersCache;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -41,6 +52,19 @@ class UserServiceImplTest {
         verify(userRepository).save(user);
     }
 
+    @Test
+    void addUsers_whenInvoked_thenAllUsersSavedInOneCall() {
+        List<User> users = List.of(User.builder().email("first@email.com").build(),
+                User.builder().email("second@email.com").build());
+        when(userRepository.saveAll(users)).thenReturn(users);
+
+        List<User> actualUsers = userService.addUsers(users);
+
+        assertEquals(users, actualUsers);
+        verify(userRepository).saveAll(users);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void getUser_whenUserFound_thenReturnUser() {
         Long userId = 0L;
@@ -136,6 +160,7 @@ class UserServiceImplTest {
         userService.deleteUser(userId);
 
         verify(userRepository).deleteById(userId);
+        verify(eventPublisher).publishEvent(new UserDeletedEvent(userId));
     }
 
     @Test
@@ -146,4 +171,37 @@ class UserServiceImplTest {
         assertThrows(ResourceNotFoundException.class,
                 () -> userService.deleteUser(userId));
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkUserExists_whenUserCached_thenRepositoryNotQueried() {
+        Long userId = 0L;
+        when(cacheManager.getCache(CacheConfig.USERS)).thenReturn(usersCache);
+        when(usersCache.get(userId)).thenReturn(() -> new User());
+
+        userService.checkUserExists(userId);
+
+        verify(userRepository, never()).existsById(anyLong());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void checkUserExists_whenUserNotCachedButExists_thenNoExceptionThrown() {
+        Long userId = 0L;
+        when(cacheManager.getCache(CacheConfig.USERS)).thenReturn(usersCache);
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        assertDoesNotThrow(() -> userService.checkUserExists(userId));
+
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void checkUserExists_whenUserNotFound_thenNotFoundExceptionThrown() {
+        Long userId = 0L;
+        when(cacheManager.getCache(CacheConfig.USERS)).thenReturn(usersCache);
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> userService.checkUserExists(userId));
+    }
+}